@@ -0,0 +1,81 @@
+package de.linus.deepltranslator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Translations per second if many async translations are requested at once, for different pool sizes.
+ * The pool is warmed up completely before measuring, so browser start-up is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class AsyncThroughputBenchmark {
+
+    private static final int REQUESTS = 16;
+
+    @Param({ "1", "2", "4" })
+    private int poolSize;
+
+    @Param({ "MUTATION_OBSERVER" })
+    private CompletionDetection completionDetection;
+
+    @Param({ "50" })
+    private int translationDelayMillis;
+
+    private FakeDeepLServer server;
+    private DeepLTranslator translator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        server = FakeDeepLServer.start();
+        translator = new DeepLTranslator(server.configuration(translationDelayMillis)
+                .setMinPoolSize(poolSize)
+                .setMaxPoolSize(poolSize)
+                .setMaxQueuedRequests(REQUESTS)
+                .setCompletionDetection(completionDetection)
+                .build());
+
+        // Browsers are started in the background
+        while (DeepLTranslatorBase.GLOBAL_INSTANCES.size() < poolSize) {
+            Thread.sleep(100);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void translateAsync() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[REQUESTS];
+
+        // Distinct texts, otherwise identical requests would be deduplicated
+        for (int i = 0; i < REQUESTS; i++) {
+            futures[i] = translator.translateAsync("Hello world " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN);
+        }
+
+        CompletableFuture.allOf(futures).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DeepLTranslator.shutdown();
+        server.close();
+    }
+}
@@ -0,0 +1,106 @@
+package de.linus.deepltranslator;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+/**
+ * Cost of a single evaluation of the wait conditions in {@link DriverWaitUtils},
+ * which is dominated by the WebDriver round trips each of them needs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DriverWaitUtilsBenchmark {
+
+    private static final By TARGET_TEXT_BY = By.id("target-dummydiv");
+
+    private FakeDeepLServer server;
+    private WebDriver driver;
+
+    private ExpectedCondition<Boolean> attributeNotBlank;
+    private ExpectedCondition<Boolean> attributeNotContains;
+    private ExpectedCondition<Boolean> attributeNotChanged;
+    private ExpectedCondition<String> attributeSettled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = FakeDeepLServer.start();
+        WebDriverBuilder.REMOTE_WEBDRIVER_URL = System.getProperty("deepl.benchmark.remoteWebDriverUrl");
+        driver = WebDriverBuilder.builder().headless(true).build();
+        driver.get(server.getUrl(0));
+        ((JavascriptExecutor) driver).executeScript(
+                "document.getElementById('target-dummydiv').textContent = 'HALLO WELT';");
+
+        attributeNotBlank = DriverWaitUtils.attributeNotBlank(TARGET_TEXT_BY, "innerHTML");
+        attributeNotContains = DriverWaitUtils.attributeNotContains(TARGET_TEXT_BY, "innerHTML", "[...]");
+        attributeNotChanged = DriverWaitUtils.attributeNotChanged(TARGET_TEXT_BY, "innerHTML", Duration.ofHours(1));
+        attributeSettled = DriverWaitUtils.attributeSettled("target-dummydiv", true, Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public Boolean attributeNotBlank() {
+        return attributeNotBlank.apply(driver);
+    }
+
+    @Benchmark
+    public Boolean attributeNotContains() {
+        return attributeNotContains.apply(driver);
+    }
+
+    @Benchmark
+    public Boolean attributeNotChanged() {
+        return attributeNotChanged.apply(driver);
+    }
+
+    /**
+     * One evaluation of all three conditions, as done on every poll while waiting for a translation.
+     */
+    @Benchmark
+    public boolean pollingRound() {
+        return attributeNotBlank.apply(driver) && attributeNotContains.apply(driver)
+                && attributeNotChanged.apply(driver);
+    }
+
+    /**
+     * The same evaluation as {@link #pollingRound()} in a single script.
+     */
+    @Benchmark
+    public String attributeSettled() {
+        return attributeSettled.apply(driver);
+    }
+
+    /**
+     * The in-browser wait on an already settled value, i.e. its fixed overhead.
+     */
+    @Benchmark
+    public String awaitAttributeSettled() {
+        return DriverWaitUtils.awaitAttributeSettled(driver, "target-dummydiv", true, Duration.ZERO,
+                Duration.ofSeconds(10));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        driver.quit();
+        server.close();
+    }
+}
@@ -0,0 +1,103 @@
+package de.linus.deepltranslator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves a local imitation of the DeepL translator page, so that benchmarks neither depend on deepl.com
+ * nor on its rate limits.
+ * <p>
+ * </p>
+ * The system property "deepl.benchmark.host" sets the host name under which the browsers reach this server,
+ * e.g. "host.docker.internal" if a remote WebDriver running in Docker is used. Default value is localhost.
+ * The system property "deepl.benchmark.remoteWebDriverUrl" sets the remote WebDriver url, by default a local
+ * ChromeDriver is started.
+ */
+class FakeDeepLServer implements AutoCloseable {
+
+    private static final String PAGE_RESOURCE = "fake-deepl.html";
+
+    private final HttpServer server;
+    private final byte[] page;
+
+    private FakeDeepLServer() throws IOException {
+        page = loadPage();
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/translator", this::handle);
+        server.start();
+    }
+
+    /**
+     * Starts the server on a free port.
+     */
+    static FakeDeepLServer start() {
+        try {
+            return new FakeDeepLServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The address of the page.
+     *
+     * @param translationDelayMillis how long the page takes to show the full translation
+     */
+    String getUrl(int translationDelayMillis) {
+        String host = System.getProperty("deepl.benchmark.host", "localhost");
+        return "http://" + host + ":" + server.getAddress().getPort() + "/translator?delay=" + translationDelayMillis;
+    }
+
+    /**
+     * A configuration which uses this server instead of deepl.com, without retries.
+     */
+    DeepLConfiguration.Builder configuration(int translationDelayMillis) {
+        return new DeepLConfiguration.Builder()
+                .setWebsiteUrl(getUrl(translationDelayMillis))
+                .setRepetitions(0)
+                .remoteWebDriverUrl(System.getProperty("deepl.benchmark.remoteWebDriverUrl"));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, page.length);
+
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(page);
+        }
+    }
+
+    private static byte[] loadPage() throws IOException {
+        try (InputStream in = FakeDeepLServer.class.getResourceAsStream(PAGE_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing resource " + PAGE_RESOURCE);
+            }
+
+            String sourceLanguages = Arrays.stream(SourceLanguage.values())
+                    .map(language -> "'" + language.getAttributeValue() + "'")
+                    .collect(Collectors.joining(", ", "[", "]"));
+            String targetLanguages = Arrays.stream(TargetLanguage.values())
+                    .map(language -> "'" + language.getAttributeValue() + "'")
+                    .collect(Collectors.joining(", ", "[", "]"));
+
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("__SOURCE_LANGUAGES__", sourceLanguages)
+                    .replace("__TARGET_LANGUAGES__", targetLanguages)
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,263 @@
+package de.linus.deepltranslator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Open-loop load generator for soak tests against the local imitation of the DeepL site.
+ * <p>
+ * </p>
+ * Requests are started at a fixed rate, no matter how many are still running, and their latency is measured
+ * from the time they were supposed to start. This way a stalled translator shows up as latency instead of
+ * silently lowering the request rate.
+ * <p>
+ * </p>
+ * Arguments are given as key=value pairs, e.g. {@code rate=10 duration=PT2H}:
+ * <ul>
+ * <li>rate: requests per second, default 5</li>
+ * <li>duration: how long to run, default PT10M</li>
+ * <li>delay: artificial translation delay of the page in milliseconds, default 200</li>
+ * <li>poolSize: max pool size, default 4</li>
+ * <li>maxQueued: max queued requests, default 1000</li>
+ * <li>completionDetection: POLLING or MUTATION_OBSERVER, default MUTATION_OBSERVER</li>
+ * <li>reportInterval: how often a report line is printed, default PT30S</li>
+ * <li>leanProfile: whether browsers are started with the lean profile, default false</li>
+ * <li>tabsPerBrowser: DeepL tabs per browser, default 1</li>
+ * <li>profileTemplate: user data directory template for new browsers, default none</li>
+ * <li>maxDriverUses: translations after which a browser is recycled, default 0 for none</li>
+ * <li>adaptiveConcurrency: whether the concurrency adapts to the page, default false</li>
+ * <li>requestTimeout: maximum duration of a request including repetitions, default PT0S for none</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    /**
+     * Latencies above one hour are recorded as one hour.
+     */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final double rate;
+    private final Duration duration;
+    private final int delay;
+    private final int poolSize;
+    private final int maxQueued;
+    private final CompletionDetection completionDetection;
+    private final Duration reportInterval;
+    private final boolean leanProfile;
+    private final int tabsPerBrowser;
+    private final Path profileTemplate;
+    private final int maxDriverUses;
+    private final boolean adaptiveConcurrency;
+    private final Duration requestTimeout;
+
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private long start;
+    private long lastReport;
+
+    private LoadTest(Map<String, String> arguments) {
+        rate = Double.parseDouble(arguments.getOrDefault("rate", "5"));
+        duration = Duration.parse(arguments.getOrDefault("duration", "PT10M"));
+        delay = Integer.parseInt(arguments.getOrDefault("delay", "200"));
+        poolSize = Integer.parseInt(arguments.getOrDefault("poolSize", "4"));
+        maxQueued = Integer.parseInt(arguments.getOrDefault("maxQueued", "1000"));
+        completionDetection = CompletionDetection.valueOf(
+                arguments.getOrDefault("completionDetection", "MUTATION_OBSERVER"));
+        reportInterval = Duration.parse(arguments.getOrDefault("reportInterval", "PT30S"));
+        leanProfile = Boolean.parseBoolean(arguments.getOrDefault("leanProfile", "false"));
+        tabsPerBrowser = Integer.parseInt(arguments.getOrDefault("tabsPerBrowser", "1"));
+        profileTemplate = arguments.containsKey("profileTemplate") ? Path.of(arguments.get("profileTemplate")) : null;
+        maxDriverUses = Integer.parseInt(arguments.getOrDefault("maxDriverUses", "0"));
+        adaptiveConcurrency = Boolean.parseBoolean(arguments.getOrDefault("adaptiveConcurrency", "false"));
+        requestTimeout = Duration.parse(arguments.getOrDefault("requestTimeout", "PT0S"));
+
+        if (rate <= 0) {
+            throw new IllegalStateException("Rate must be positive");
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> arguments = new HashMap<>();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+
+            if (separator < 0) {
+                throw new IllegalStateException("Argument must be key=value: " + arg);
+            }
+
+            arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        new LoadTest(arguments).run();
+    }
+
+    private void run() throws InterruptedException {
+        try (FakeDeepLServer server = FakeDeepLServer.start()) {
+            DeepLTranslator translator = new DeepLTranslator(server.configuration(delay)
+                    .setMaxPoolSize(poolSize)
+                    .setMaxQueuedRequests(maxQueued)
+                    .setCompletionDetection(completionDetection)
+                    .setLeanProfile(leanProfile)
+                    .setTabsPerBrowser(tabsPerBrowser)
+                    .setProfileTemplateDirectory(profileTemplate)
+                    .setMaxDriverUses(maxDriverUses)
+                    .setAdaptiveConcurrency(adaptiveConcurrency)
+                    .setRequestTimeout(requestTimeout)
+                    .build());
+
+            System.out.printf("rate=%s/s duration=%s delay=%dms poolSize=%d completionDetection=%s leanProfile=%s"
+                    + " tabsPerBrowser=%d maxDriverUses=%d adaptiveConcurrency=%s requestTimeout=%s%n", rate, duration,
+                    delay, poolSize, completionDetection, leanProfile, tabsPerBrowser, maxDriverUses,
+                    adaptiveConcurrency, requestTimeout);
+            System.out.printf("%10s %8s %9s %7s %9s %9s %9s %9s %8s %7s %9s %10s%n", "elapsed[s]", "count",
+                    "tput[/s]", "errors", "p50[ms]", "p95[ms]", "p99[ms]", "max[ms]", "inFlight", "drivers",
+                    "rss[MB]", "rss/driver");
+
+            generateLoad(translator);
+            translator.awaitTermination(1, TimeUnit.MINUTES);
+            report(System.nanoTime());
+
+            System.out.println();
+            System.out.printf("Total: %d requests, %d errors (%.2f%%), %.2f translations/s%n",
+                    total.getTotalCount(), errors.get(), 100.0 * errors.get() / Math.max(1, total.getTotalCount()),
+                    (total.getTotalCount() - errors.get()) / (duration.toMillis() / 1000.0));
+            MetricsRegistry metrics = (MetricsRegistry) translator.getConfiguration().getMetrics();
+
+            for (TranslationPhase phase : List.of(TranslationPhase.COLD_START, TranslationPhase.BROWSER_LAUNCH,
+                    TranslationPhase.PAGE_LOAD)) {
+                System.out.printf("%s: %d times, mean %d ms, p99 %d ms%n", phase.getMetricName(),
+                        metrics.getCount(phase), metrics.getMean(phase).toMillis(),
+                        metrics.getPercentile(phase, 99).toMillis());
+            }
+
+            System.out.printf("Browsers started: %d, discarded: %d, recycled: %d%n",
+                    metrics.getCount(TranslationEvent.DRIVER_STARTED),
+                    metrics.getCount(TranslationEvent.DRIVER_DISCARDED),
+                    metrics.getCount(TranslationEvent.DRIVER_RECYCLED));
+            System.out.printf("Concurrency limit increases: %d, latency decreases: %d, timeout decreases: %d%n",
+                    metrics.getCount(TranslationEvent.CONCURRENCY_LIMIT_INCREASED),
+                    metrics.getCount(TranslationEvent.CONCURRENCY_LIMIT_LATENCY_DECREASED),
+                    metrics.getCount(TranslationEvent.CONCURRENCY_LIMIT_TIMEOUT_DECREASED));
+            System.out.println("Latency distribution in milliseconds:");
+            total.outputPercentileDistribution(System.out, 1000.0);
+        } finally {
+            DeepLTranslator.shutdown();
+        }
+    }
+
+    private void generateLoad(DeepLTranslator translator) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        start = System.nanoTime();
+        lastReport = start;
+        long end = start + duration.toNanos();
+        long nextReport = start + reportInterval.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+
+            if (intendedStart >= end) {
+                break;
+            }
+
+            while (System.nanoTime() < intendedStart) {
+                LockSupport.parkNanos(intendedStart - System.nanoTime());
+            }
+
+            inFlight.incrementAndGet();
+
+            // Distinct texts, otherwise identical requests would be deduplicated
+            translator.translateAsync("Request number " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN)
+                    .whenComplete((translation, ex) -> {
+                        long latencyMicros = (System.nanoTime() - intendedStart) / 1000;
+                        recorder.recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+                        inFlight.decrementAndGet();
+
+                        if (ex != null) {
+                            errors.incrementAndGet();
+                        }
+                    });
+
+            long now = System.nanoTime();
+
+            if (now >= nextReport) {
+                report(now);
+                nextReport += reportInterval.toNanos();
+            }
+        }
+    }
+
+    /**
+     * Prints the latencies recorded since the last report.
+     */
+    private void report(long now) {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        long elapsedNanos = now - start;
+        long intervalNanos = Math.max(1, now - lastReport);
+        lastReport = now;
+
+        int drivers = DeepLTranslatorBase.GLOBAL_INSTANCES.size();
+        long rss = browserRss();
+
+        System.out.printf("%10d %8d %9.2f %7d %9.1f %9.1f %9.1f %9.1f %8d %7d %9s %10s%n",
+                TimeUnit.NANOSECONDS.toSeconds(elapsedNanos),
+                interval.getTotalCount(),
+                interval.getTotalCount() / (intervalNanos / 1e9),
+                errors.get(),
+                interval.getValueAtPercentile(50) / 1000.0,
+                interval.getValueAtPercentile(95) / 1000.0,
+                interval.getValueAtPercentile(99) / 1000.0,
+                interval.getMaxValue() / 1000.0,
+                inFlight.get(),
+                drivers,
+                rss < 0 ? "n/a" : Long.toString(rss),
+                rss < 0 || drivers == 0 ? "n/a" : Long.toString(rss / drivers));
+    }
+
+    /**
+     * Resident set size in megabytes of all browser and driver processes started by this JVM, or -1 if it can't
+     * be read, e.g. because /proc is not available or a remote WebDriver is used.
+     */
+    private static long browserRss() {
+        List<ProcessHandle> processes = ProcessHandle.current().descendants().toList();
+
+        if (processes.isEmpty()) {
+            return -1;
+        }
+
+        long kilobytes = 0;
+
+        for (ProcessHandle process : processes) {
+            try {
+                for (String line : Files.readAllLines(Path.of("/proc", Long.toString(process.pid()), "status"))) {
+                    if (line.startsWith("VmRSS:")) {
+                        kilobytes += Long.parseLong(line.replaceAll("\\D", ""));
+                        break;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // The process exited in the meantime or /proc is not available
+                if (!Files.isDirectory(Path.of("/proc", "self"))) {
+                    return -1;
+                }
+            }
+        }
+
+        return kilobytes / 1024;
+    }
+}
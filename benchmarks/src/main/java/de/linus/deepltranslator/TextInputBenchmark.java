@@ -0,0 +1,74 @@
+package de.linus.deepltranslator;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of a single translation by text length, typed key by key or inserted at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class TextInputBenchmark {
+
+    @Param({ "SEND_KEYS", "INSERT_TEXT" })
+    private TextInput textInput;
+
+    @Param({ "100", "1000", "5000" })
+    private int textLength;
+
+    @Param({ "50" })
+    private int translationDelayMillis;
+
+    private FakeDeepLServer server;
+    private DeepLTranslator translator;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = FakeDeepLServer.start();
+        translator = new DeepLTranslator(server.configuration(translationDelayMillis)
+                .setMinPoolSize(1)
+                .setMaxPoolSize(1)
+                .setTimeout(Duration.ofMinutes(5))
+                .setCompletionDetection(CompletionDetection.MUTATION_OBSERVER)
+                .setTextInput(textInput)
+                .build());
+
+        StringBuilder builder = new StringBuilder(textLength);
+
+        while (builder.length() < textLength) {
+            builder.append("The quick brown fox jumps over the lazy dog. ");
+        }
+
+        text = builder.substring(0, textLength).trim();
+    }
+
+    @Benchmark
+    public String translate() throws Exception {
+        return translator.translate(text, SourceLanguage.ENGLISH, TargetLanguage.GERMAN);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DeepLTranslator.shutdown();
+        server.close();
+    }
+}
@@ -0,0 +1,60 @@
+package de.linus.deepltranslator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of a single synchronous translation with one browser instance,
+ * from acquiring the browser until the translation has settled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class TranslationBenchmark {
+
+    @Param({ "POLLING", "MUTATION_OBSERVER" })
+    private CompletionDetection completionDetection;
+
+    @Param({ "50" })
+    private int translationDelayMillis;
+
+    private FakeDeepLServer server;
+    private DeepLTranslator translator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = FakeDeepLServer.start();
+        translator = new DeepLTranslator(server.configuration(translationDelayMillis)
+                .setMinPoolSize(1)
+                .setMaxPoolSize(1)
+                .setCompletionDetection(completionDetection)
+                .build());
+    }
+
+    @Benchmark
+    public String translate() throws Exception {
+        return translator.translate("Hello world", SourceLanguage.ENGLISH, TargetLanguage.GERMAN);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DeepLTranslator.shutdown();
+        server.close();
+    }
+}
@@ -0,0 +1,272 @@
+package de.linus.deepltranslator;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+
+/**
+ * Hosts several DeepL tabs in each browser instance, so that fewer browsers are needed for the same number
+ * of concurrent translations.
+ * <p>
+ * </p>
+ * A WebDriver session can only talk to one tab at a time. Therefore every tab gets its own decorated driver,
+ * which locks its browser for the duration of each command and switches to its tab first if needed.
+ * Commands of different tabs are interleaved, but never run at the same time.
+ */
+class BrowserTabs {
+
+    private final int tabsPerBrowser;
+
+    /**
+     * Starts a new browser instance with the DeepL site loaded.
+     */
+    private final Supplier<WebDriver> browserFactory;
+
+    /**
+     * Loads the DeepL site in a new tab.
+     */
+    private final Consumer<WebDriver> pageLoader;
+
+    /**
+     * Browser instances which have a tab open or are starting, guarded by this.
+     */
+    private final List<Browser> browsers = new ArrayList<>();
+
+    BrowserTabs(int tabsPerBrowser, Supplier<WebDriver> browserFactory, Consumer<WebDriver> pageLoader) {
+        this.tabsPerBrowser = tabsPerBrowser;
+        this.browserFactory = browserFactory;
+        this.pageLoader = pageLoader;
+    }
+
+    /**
+     * Opens a tab in a browser instance which has room for another tab, or starts a new browser instance.
+     * A tab in a browser instance which is still starting is reserved as well, and opened once the start is done.
+     */
+    PooledDriver open() {
+        while (true) {
+            Browser browser;
+            boolean starting = false;
+
+            synchronized (this) {
+                browser = reserveTab();
+
+                // Registered before it is started, so that concurrent callers wait for it instead of starting more
+                if (browser == null) {
+                    browser = new Browser();
+                    browsers.add(browser);
+                    starting = true;
+                }
+            }
+
+            if (starting) {
+                return start(browser);
+            }
+
+            try {
+                browser.started.join();
+            } catch (CompletionException | CancellationException e) {
+                // The start failed, the tab is reserved in another browser instance or a new one is started
+                continue;
+            }
+
+            return openTab(browser);
+        }
+    }
+
+    /**
+     * Starts the browser instance and opens its first tab, then lets the callers waiting for it open theirs.
+     */
+    private PooledDriver start(Browser browser) {
+        WebDriver driver = null;
+        String windowHandle;
+
+        try {
+            driver = browserFactory.get();
+            windowHandle = driver.getWindowHandle();
+        } catch (RuntimeException e) {
+            if (driver != null) {
+                try {
+                    driver.quit();
+                } catch (RuntimeException ignore) {}
+            }
+
+            synchronized (this) {
+                browsers.remove(browser);
+            }
+
+            browser.started.completeExceptionally(e);
+            throw e;
+        }
+
+        DeepLTranslatorBase.GLOBAL_INSTANCES.add(driver);
+        browser.driver = driver;
+        browser.currentWindowHandle = windowHandle;
+        browser.started.complete(null);
+        return newTab(browser, windowHandle);
+    }
+
+    private PooledDriver openTab(Browser browser) {
+        String windowHandle;
+
+        try {
+            windowHandle = browser.openWindow();
+        } catch (RuntimeException e) {
+            closeBrowserIfUnused(browser);
+            throw e;
+        }
+
+        PooledDriver tab = newTab(browser, windowHandle);
+
+        try {
+            pageLoader.accept(tab.getDriver());
+        } catch (RuntimeException e) {
+            try {
+                tab.close();
+            } catch (RuntimeException ignore) {}
+            throw e;
+        }
+
+        return tab;
+    }
+
+    /**
+     * Reserves a tab in a running or starting browser instance or returns null if all of them are full.
+     */
+    private synchronized Browser reserveTab() {
+        for (Browser browser : browsers) {
+            if (browser.tabs < tabsPerBrowser) {
+                browser.tabs++;
+                return browser;
+            }
+        }
+
+        return null;
+    }
+
+    private PooledDriver newTab(Browser browser, String windowHandle) {
+        WebDriver tabDriver = new TabDecorator(browser, windowHandle).decorate(browser.driver);
+        return new PooledDriver(tabDriver, () -> close(browser, windowHandle));
+    }
+
+    /**
+     * Closes the tab, and quits its browser instance if it was the last tab.
+     */
+    private void close(Browser browser, String windowHandle) {
+        if (closeBrowserIfUnused(browser)) {
+            return;
+        }
+
+        browser.lock.lock();
+        try {
+            browser.driver.switchTo().window(windowHandle);
+            browser.currentWindowHandle = windowHandle;
+            browser.driver.close();
+            browser.currentWindowHandle = null;
+        } finally {
+            browser.lock.unlock();
+        }
+    }
+
+    /**
+     * Gives up one tab of the browser instance and quits it if no tab is left.
+     *
+     * @return whether the browser instance was quit
+     */
+    private boolean closeBrowserIfUnused(Browser browser) {
+        synchronized (this) {
+            browser.tabs--;
+
+            if (browser.tabs > 0) {
+                return false;
+            }
+
+            browsers.remove(browser);
+        }
+
+        DeepLTranslatorBase.GLOBAL_INSTANCES.remove(browser.driver);
+        browser.driver.quit();
+        return true;
+    }
+
+    /**
+     * A browser instance shared by several tabs.
+     */
+    private static class Browser {
+
+        /**
+         * Completed once the browser instance is started, or exceptionally if the start failed.
+         */
+        private final CompletableFuture<Void> started = new CompletableFuture<>();
+
+        /**
+         * Set before {@link Browser#started} is completed.
+         */
+        private WebDriver driver;
+
+        /**
+         * Serializes the WebDriver commands of all tabs.
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * The tab the WebDriver session currently talks to, guarded by the lock.
+         */
+        private String currentWindowHandle;
+
+        /**
+         * Number of open or opening tabs, guarded by the enclosing {@link BrowserTabs}.
+         */
+        private int tabs = 1;
+
+        private String openWindow() {
+            lock.lock();
+            try {
+                driver.switchTo().newWindow(WindowType.TAB);
+                currentWindowHandle = driver.getWindowHandle();
+                return currentWindowHandle;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs every command of one tab while holding its browser's lock, after switching to the tab.
+     */
+    private static class TabDecorator extends WebDriverDecorator<WebDriver> {
+
+        private final Browser browser;
+        private final String windowHandle;
+
+        private TabDecorator(Browser browser, String windowHandle) {
+            this.browser = browser;
+            this.windowHandle = windowHandle;
+        }
+
+        @Override
+        public Object call(Decorated<?> target, Method method, Object[] args) throws Throwable {
+            browser.lock.lock();
+            try {
+                if (!windowHandle.equals(browser.currentWindowHandle)) {
+                    browser.driver.switchTo().window(windowHandle);
+                    browser.currentWindowHandle = windowHandle;
+                }
+
+                return super.call(target, method, args);
+            } finally {
+                browser.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.linus.deepltranslator;
+
+/**
+ * How the end of a translation on the DeepL site is detected.
+ */
+public enum CompletionDetection {
+
+    /**
+     * Polls the translation every 100 milliseconds and waits until it hasn't changed for one second.
+     * Each poll is a single script execution.
+     */
+    POLLING,
+
+    /**
+     * Watches the translation with a MutationObserver inside the browser and completes
+     * as soon as DeepL is no longer busy and the translation hasn't changed for the quiet period.
+     *
+     * @see DeepLConfiguration#getCompletionQuietPeriod()
+     */
+    MUTATION_OBSERVER
+}
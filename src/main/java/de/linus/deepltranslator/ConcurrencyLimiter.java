@@ -0,0 +1,298 @@
+package de.linus.deepltranslator;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openqa.selenium.TimeoutException;
+
+/**
+ * Limits the number of translations running at the same time to what the DeepL site currently accepts.
+ * <p>
+ * </p>
+ * The limit follows additive increase and multiplicative decrease. The samples are evaluated in windows
+ * of at least {@value #MIN_WINDOW_SAMPLES} translations. After a window in which the limit was reached,
+ * it is raised by one. If too many translations timed out, it is halved, and if translations became much
+ * slower than usual, it is lowered slightly. Thereby the limit settles just below the concurrency
+ * at which the site starts to throttle.
+ * <p>
+ * </p>
+ * Waiting for the concurrency limit only counts as acquiring, the samples start once a translation may run.
+ * Waiting callers are let in by priority.
+ */
+class ConcurrencyLimiter {
+
+    /**
+     * Minimum number of translations evaluated at once, so that a single slow text doesn't change the limit.
+     */
+    static final int MIN_WINDOW_SAMPLES = 10;
+
+    /**
+     * Share of timed out translations in a window above which the limit is decreased.
+     */
+    static final double TIMEOUT_RATE_THRESHOLD = 0.1;
+
+    /**
+     * Factor of the limit after too many translations timed out.
+     */
+    static final double TIMEOUT_DECREASE_FACTOR = 0.5;
+
+    /**
+     * How many times slower than usual translations may become before the limit is decreased.
+     */
+    static final double LATENCY_TOLERANCE = 2.0;
+
+    /**
+     * Factor of the limit after translations became too slow.
+     */
+    static final double LATENCY_DECREASE_FACTOR = 0.9;
+
+    /**
+     * How fast the usual latency follows slower windows, so that e.g. longer texts are not mistaken
+     * for throttling forever. Faster windows are followed at once.
+     */
+    private static final double BASELINE_DRIFT = 0.1;
+
+    private final int maxLimit;
+    private final int maxQueued;
+    private final TranslationMetrics metrics;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Callers waiting for the limit.
+     */
+    private final PriorityWaiters<Void> waiters = new PriorityWaiters<>(lock);
+
+    /**
+     * The current limit, guarded by the lock.
+     */
+    private double limit;
+
+    /**
+     * Number of running translations, guarded by the lock.
+     */
+    private int inFlight;
+
+    /**
+     * The usual latency of a translation in nanoseconds or 0 if not known yet, guarded by the lock.
+     */
+    private double baselineNanos;
+
+    /**
+     * Samples of the current window, guarded by the lock.
+     */
+    private int windowSamples;
+    private int windowTimeouts;
+    private long windowLatencyNanos;
+    private int windowMaxInFlight;
+
+    /**
+     * @param initialLimit the limit until the first window was evaluated
+     * @param maxLimit the limit is never raised above, usually the maximum pool size
+     * @param maxQueued the maximum number of callers waiting for the limit
+     */
+    ConcurrencyLimiter(int initialLimit, int maxLimit, int maxQueued, TranslationMetrics metrics) {
+        this.limit = Math.max(1, Math.min(initialLimit, maxLimit));
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Waits until fewer translations than the limit are running.
+     *
+     * @throws TimeoutException if the limit wasn't available until the given time
+     * @throws RejectedExecutionException if too many callers are already waiting
+     * @throws CancellationException if the request was cancelled while waiting
+     */
+    void acquire(TranslationRequest request, long timeoutMillisEnd)
+            throws TimeoutException, RejectedExecutionException, CancellationException {
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+                return;
+            }
+
+            if (waiters.size() >= maxQueued) {
+                throw new RejectedExecutionException("Too many requests waiting for the concurrency limit");
+            }
+
+            PriorityWaiters.Waiter<Void> waiter = waiters.add(request);
+
+            try {
+                while (!waiter.isGranted()) {
+                    long remaining = timeoutMillisEnd - System.currentTimeMillis();
+
+                    if (remaining <= 0) {
+                        throw new TimeoutException("Timed out waiting for the concurrency limit");
+                    }
+
+                    try {
+                        waiter.await(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new TimeoutException("Interrupted while waiting for the concurrency limit", e);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Cancelled or interrupted right after the grant, the permit goes to the next waiter
+                if (waiter.isGranted()) {
+                    inFlight--;
+                    dispatch();
+                }
+                throw e;
+            } finally {
+                if (!waiter.isGranted()) {
+                    waiters.remove(waiter);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a translation which failed for another reason than the DeepL site, e.g. a crashed browser instance.
+     * It is not counted as a sample.
+     */
+    void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a translation and adjusts the limit if the current window is complete.
+     *
+     * @param timedOut whether the DeepL site didn't translate in time
+     * @param latencyNanos how long the translation took since the limit was acquired
+     */
+    void release(boolean timedOut, long latencyNanos) {
+        TranslationEvent decision = null;
+
+        lock.lock();
+        try {
+            inFlight--;
+            windowSamples++;
+
+            if (timedOut) {
+                windowTimeouts++;
+            } else {
+                windowLatencyNanos += latencyNanos;
+            }
+
+            if (windowSamples >= Math.max(MIN_WINDOW_SAMPLES, (int) limit)) {
+                decision = evaluateWindow();
+            }
+
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+
+        if (decision != null) {
+            metrics.increment(decision);
+        }
+    }
+
+    /**
+     * Lets waiting callers in by priority while fewer translations than the limit are running.
+     */
+    private void dispatch() {
+        while (!waiters.isEmpty() && inFlight < (int) limit) {
+            inFlight++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+            waiters.poll().grant(null);
+        }
+    }
+
+    /**
+     * Adjusts the limit to the samples of the window and starts a new window.
+     *
+     * @return the decision or null if the limit was kept
+     */
+    private TranslationEvent evaluateWindow() {
+        TranslationEvent decision = null;
+        int successes = windowSamples - windowTimeouts;
+        double meanNanos = successes > 0 ? (double) windowLatencyNanos / successes : 0;
+
+        if (windowTimeouts > TIMEOUT_RATE_THRESHOLD * windowSamples) {
+            limit = Math.max(1, limit * TIMEOUT_DECREASE_FACTOR);
+            decision = TranslationEvent.CONCURRENCY_LIMIT_TIMEOUT_DECREASED;
+        } else if (baselineNanos > 0 && meanNanos > LATENCY_TOLERANCE * baselineNanos) {
+            limit = Math.max(1, limit * LATENCY_DECREASE_FACTOR);
+            decision = TranslationEvent.CONCURRENCY_LIMIT_LATENCY_DECREASED;
+        } else if (windowMaxInFlight >= (int) limit && limit < maxLimit) {
+            // Only raise a limit which was actually reached, otherwise it could grow without any evidence
+            limit = Math.min(maxLimit, limit + 1);
+            decision = TranslationEvent.CONCURRENCY_LIMIT_INCREASED;
+        }
+
+        if (successes > 0) {
+            baselineNanos = baselineNanos == 0 || meanNanos < baselineNanos
+                    ? meanNanos
+                    : baselineNanos + (meanNanos - baselineNanos) * BASELINE_DRIFT;
+        }
+
+        windowSamples = 0;
+        windowTimeouts = 0;
+        windowLatencyNanos = 0;
+        windowMaxInFlight = inFlight;
+        return decision;
+    }
+
+    /**
+     * The current limit of translations running at the same time.
+     */
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of translations running.
+     */
+    int getInFlightCount() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of callers waiting for the limit.
+     */
+    int getQueuedCount() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of callers of the given priority waiting for the limit.
+     */
+    int getQueuedCount(TranslationPriority priority) {
+        lock.lock();
+        try {
+            return waiters.size(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
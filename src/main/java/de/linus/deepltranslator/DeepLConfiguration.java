@@ -1,6 +1,8 @@
 package de.linus.deepltranslator;
 
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
 import java.util.function.Function;
 
 public class DeepLConfiguration {
@@ -13,7 +15,7 @@ public class DeepLConfiguration {
      * Default duration is 10 seconds.
      *
      * @see DeepLTranslatorBase#getTranslation(String, SourceLanguage,
-     *      TargetLanguage)
+     *      TargetLanguage, TranslationRequest)
      */
     private final Duration timeout;
 
@@ -53,14 +55,261 @@ public class DeepLConfiguration {
     private final String remoteWebDriverUrl;
     private final String userAgent; 
 
-    private DeepLConfiguration(Duration timeout, int repetitions, Function<Integer, Duration> repetitionsDelay,
-            boolean postProcessing, String remoteWebDriverUrl, String userAgent) {
-        this.timeout = timeout;
-        this.repetitions = repetitions;
-        this.repetitionsDelay = repetitionsDelay;
-        this.postProcessing = postProcessing;
-        this.remoteWebDriverUrl = remoteWebDriverUrl;
-        this.userAgent = userAgent;
+    /**
+     * The number of browser instances which are started eagerly
+     * when the translator is created and kept alive afterwards.
+     * <p>
+     * </p>
+     * Default value is 1.
+     */
+    private final int minPoolSize;
+
+    /**
+     * The maximum number of browser instances a translator may start.
+     * If all of them are busy, further requests wait for a free one.
+     * <p>
+     * </p>
+     * Default value is 4.
+     */
+    private final int maxPoolSize;
+
+    /**
+     * The maximum number of requests waiting for a free browser instance.
+     * Requests exceeding this limit are rejected immediately.
+     * <p>
+     * </p>
+     * Default value is 64.
+     */
+    private final int maxQueuedRequests;
+
+    /**
+     * How the end of a translation on the DeepL site is detected.
+     * <p>
+     * </p>
+     * Default value is {@link CompletionDetection#POLLING}.
+     */
+    private final CompletionDetection completionDetection;
+
+    /**
+     * The time the translation must not have changed before it is considered complete.
+     * Is only of use if {@link DeepLConfiguration#completionDetection} is
+     * {@link CompletionDetection#MUTATION_OBSERVER}.
+     * <p>
+     * </p>
+     * Default duration is 250 milliseconds.
+     */
+    private final Duration completionQuietPeriod;
+
+    /**
+     * The maximum number of characters, of source texts and translations together,
+     * kept in the in-memory translation cache. 0 disables the cache.
+     * <p>
+     * </p>
+     * By default, the cache is disabled.
+     */
+    private final long cacheMaximumWeight;
+
+    /**
+     * Is only of use if {@link DeepLConfiguration#cacheMaximumWeight} isn't zero.
+     * Cached translations are discarded after this duration.
+     * <p>
+     * </p>
+     * Default duration is 1 hour.
+     */
+    private final Duration cacheExpiration;
+
+    /**
+     * The directory of the persistent translation store, which keeps translations
+     * on disk across restarts. Null disables the store.
+     * <p>
+     * </p>
+     * By default, the store is disabled.
+     */
+    private final Path persistentStoreDirectory;
+
+    /**
+     * Is only of use if {@link DeepLConfiguration#persistentStoreDirectory} isn't null.
+     * If the store grows beyond this size in bytes, it is compacted in the background
+     * and the oldest translations are dropped. The limit is 1 GiB.
+     * <p>
+     * </p>
+     * Default size is 256 MiB.
+     */
+    private final long persistentStoreMaximumSize;
+
+    /**
+     * Receives the durations of the translation phases, counts of timeouts and retries
+     * and the gauges of the browser pool.
+     * <p>
+     * </p>
+     * By default, a new {@link MetricsRegistry} is used.
+     */
+    private final TranslationMetrics metrics;
+
+    /**
+     * The address of the DeepL translator page which is loaded into every browser instance.
+     * Only needs to be changed to run against a local copy of the page, e.g. for benchmarks.
+     * <p>
+     * </p>
+     * Default value is https://www.deepl.com/translator.
+     */
+    private final String websiteUrl;
+
+    /**
+     * How the source text is entered on the DeepL site.
+     * <p>
+     * </p>
+     * Default value is {@link TextInput#SEND_KEYS}.
+     */
+    private final TextInput textInput;
+
+    /**
+     * The number of DeepL tabs each browser instance hosts.
+     * <p>
+     * </p>
+     * With more than one tab, fewer browser instances are started for the same pool size, which needs
+     * considerably less memory. In exchange, the tabs of a browser instance have to take turns sending
+     * their commands, and {@link CompletionDetection#MUTATION_OBSERVER} falls back to polling,
+     * because it would block the other tabs while waiting. The pool sizes count tabs in this case.
+     * <p>
+     * </p>
+     * Default value is 1.
+     */
+    private final int tabsPerBrowser;
+
+    /**
+     * Whether browser instances are started with a lean profile.
+     * <p>
+     * </p>
+     * The lean profile turns off Chrome features which are not needed to translate, like background networking,
+     * extensions and images, limits the number of renderer processes and blocks the urls of
+     * {@link DeepLConfiguration#blockedUrls}. This reduces the memory usage and the page load time.
+     * With a remote WebDriver, the urls are not blocked.
+     * <p>
+     * </p>
+     * By default, the lean profile is disabled.
+     */
+    private final boolean leanProfile;
+
+    /**
+     * Url patterns which are not loaded if the lean profile is enabled, "*" matches any characters.
+     * <p>
+     * </p>
+     * By default, images, fonts, media and common analytics services are blocked.
+     */
+    private final List<String> blockedUrls;
+
+    /**
+     * A Chrome user data directory which is seeded once by visiting the DeepL site and then copied
+     * for every new browser instance, so that they start with a warm HTTP cache and cookies.
+     * The directory is created if it doesn't exist and can be reused across runs.
+     * Is ignored for remote browser instances.
+     * <p>
+     * </p>
+     * By default, no template is used.
+     */
+    private final Path profileTemplateDirectory;
+
+    /**
+     * The maximum number of browser instances a translator starts at the same time.
+     * Starting many browsers at once, e.g. to warm up a large pool, competes for CPU and slows down every start.
+     * <p>
+     * </p>
+     * Default value is 2.
+     */
+    private final int maxConcurrentStarts;
+
+    /**
+     * The number of translations after which a browser instance is replaced, because long-lived
+     * DeepL tabs grow in memory and eventually hang. The replacement is started in the background
+     * before the old instance is quit. 0 means no limit.
+     * <p>
+     * </p>
+     * Default value is 0.
+     */
+    private final int maxDriverUses;
+
+    /**
+     * The age after which a browser instance is replaced in the background. Zero means no limit.
+     * <p>
+     * </p>
+     * Default value is zero.
+     */
+    private final Duration maxDriverAge;
+
+    /**
+     * The JavaScript heap size of the DeepL site in bytes after which a browser instance is replaced
+     * in the background. It is measured after every translation and only available in Chrome. It doesn't include
+     * the native, DOM and GPU memory of the browser, so it only catches a growing page. 0 means no limit.
+     * <p>
+     * </p>
+     * Default value is 0.
+     */
+    private final long maxDriverHeapSize;
+
+    /**
+     * Whether the number of translations running at the same time adapts to the DeepL site. It starts at the
+     * min pool size, grows while translations stay fast and shrinks when they slow down or time out,
+     * so that the site isn't pushed into throttling. It never exceeds the max pool size. Requests waiting
+     * for the limit count towards the max queued requests.
+     * <p>
+     * </p>
+     * Default value is false.
+     */
+    private final boolean adaptiveConcurrency;
+
+    /**
+     * The maximum duration of a request including all its repetitions and the time it waits for a browser
+     * instance. No repetition is started which couldn't begin before it elapses. Zero means no limit,
+     * so that only {@link DeepLConfiguration#timeout} and {@link DeepLConfiguration#repetitions} apply.
+     * <p>
+     * </p>
+     * Default value is zero.
+     */
+    private final Duration requestTimeout;
+
+    /**
+     * How many texts of a translation stream are translated at the same time per browser instance
+     * of the max pool size. Further texts are only pulled from the source stream when a translation was taken,
+     * so that the memory use doesn't depend on the length of the stream.
+     * <p>
+     * </p>
+     * Default value is 2.
+     *
+     * @see DeepLTranslator#translateStream(java.util.stream.Stream, SourceLanguage, TargetLanguage)
+     */
+    private final int streamItemsPerBrowser;
+
+    private DeepLConfiguration(Builder builder) {
+        this.timeout = builder.timeout;
+        this.repetitions = builder.repetitions;
+        this.repetitionsDelay = builder.repetitionsDelay;
+        this.postProcessing = builder.postProcessing;
+        this.remoteWebDriverUrl = builder.remoteWebDriverUrl;
+        this.userAgent = builder.userAgent;
+        this.minPoolSize = builder.minPoolSize;
+        this.maxPoolSize = builder.maxPoolSize;
+        this.maxQueuedRequests = builder.maxQueuedRequests;
+        this.completionDetection = builder.completionDetection;
+        this.completionQuietPeriod = builder.completionQuietPeriod;
+        this.cacheMaximumWeight = builder.cacheMaximumWeight;
+        this.cacheExpiration = builder.cacheExpiration;
+        this.persistentStoreDirectory = builder.persistentStoreDirectory;
+        this.persistentStoreMaximumSize = builder.persistentStoreMaximumSize;
+        this.metrics = builder.metrics;
+        this.websiteUrl = builder.websiteUrl;
+        this.textInput = builder.textInput;
+        this.tabsPerBrowser = builder.tabsPerBrowser;
+        this.leanProfile = builder.leanProfile;
+        this.blockedUrls = List.copyOf(builder.blockedUrls);
+        this.profileTemplateDirectory = builder.profileTemplateDirectory;
+        this.maxConcurrentStarts = builder.maxConcurrentStarts;
+        this.maxDriverUses = builder.maxDriverUses;
+        this.maxDriverAge = builder.maxDriverAge;
+        this.maxDriverHeapSize = builder.maxDriverHeapSize;
+        this.adaptiveConcurrency = builder.adaptiveConcurrency;
+        this.requestTimeout = builder.requestTimeout;
+        this.streamItemsPerBrowser = builder.streamItemsPerBrowser;
     }
 
     public String getRemoteWebDriverUrl() {
@@ -79,7 +328,7 @@ public class DeepLConfiguration {
      * Default duration is 10 seconds.
      *
      * @see DeepLTranslatorBase#getTranslation(String, SourceLanguage,
-     *      TargetLanguage)
+     *      TargetLanguage, TranslationRequest)
      */
     public Duration getTimeout() {
         return timeout;
@@ -124,6 +373,277 @@ public class DeepLConfiguration {
         return postProcessing;
     }
 
+    /**
+     * The number of browser instances which are started eagerly
+     * when the translator is created and kept alive afterwards.
+     * <p>
+     * </p>
+     * Default value is 1.
+     */
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    /**
+     * The maximum number of browser instances a translator may start.
+     * If all of them are busy, further requests wait for a free one.
+     * <p>
+     * </p>
+     * Default value is 4.
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * The maximum number of requests waiting for a free browser instance.
+     * Requests exceeding this limit are rejected immediately.
+     * <p>
+     * </p>
+     * Default value is 64.
+     */
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    /**
+     * How the end of a translation on the DeepL site is detected.
+     * <p>
+     * </p>
+     * Default value is {@link CompletionDetection#POLLING}.
+     */
+    public CompletionDetection getCompletionDetection() {
+        return completionDetection;
+    }
+
+    /**
+     * The time the translation must not have changed before it is considered complete.
+     * Is only of use if {@link DeepLConfiguration#completionDetection} is
+     * {@link CompletionDetection#MUTATION_OBSERVER}.
+     * <p>
+     * </p>
+     * Default duration is 250 milliseconds.
+     */
+    public Duration getCompletionQuietPeriod() {
+        return completionQuietPeriod;
+    }
+
+    /**
+     * The maximum number of characters, of source texts and translations together,
+     * kept in the in-memory translation cache. 0 disables the cache.
+     * <p>
+     * </p>
+     * By default, the cache is disabled.
+     */
+    public long getCacheMaximumWeight() {
+        return cacheMaximumWeight;
+    }
+
+    /**
+     * Is only of use if {@link DeepLConfiguration#cacheMaximumWeight} isn't zero.
+     * Cached translations are discarded after this duration.
+     * <p>
+     * </p>
+     * Default duration is 1 hour.
+     */
+    public Duration getCacheExpiration() {
+        return cacheExpiration;
+    }
+
+    /**
+     * The directory of the persistent translation store, which keeps translations
+     * on disk across restarts. Null disables the store.
+     * <p>
+     * </p>
+     * By default, the store is disabled.
+     */
+    public Path getPersistentStoreDirectory() {
+        return persistentStoreDirectory;
+    }
+
+    /**
+     * Is only of use if {@link DeepLConfiguration#persistentStoreDirectory} isn't null.
+     * If the store grows beyond this size in bytes, it is compacted in the background
+     * and the oldest translations are dropped. The limit is 1 GiB.
+     * <p>
+     * </p>
+     * Default size is 256 MiB.
+     */
+    public long getPersistentStoreMaximumSize() {
+        return persistentStoreMaximumSize;
+    }
+
+    /**
+     * Receives the durations of the translation phases, counts of timeouts and retries
+     * and the gauges of the browser pool.
+     * <p>
+     * </p>
+     * By default, a new {@link MetricsRegistry} is used.
+     */
+    public TranslationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * The address of the DeepL translator page which is loaded into every browser instance.
+     * Only needs to be changed to run against a local copy of the page, e.g. for benchmarks.
+     * <p>
+     * </p>
+     * Default value is https://www.deepl.com/translator.
+     */
+    public String getWebsiteUrl() {
+        return websiteUrl;
+    }
+
+    /**
+     * How the source text is entered on the DeepL site.
+     * <p>
+     * </p>
+     * Default value is {@link TextInput#SEND_KEYS}.
+     */
+    public TextInput getTextInput() {
+        return textInput;
+    }
+
+    /**
+     * The number of DeepL tabs each browser instance hosts.
+     * <p>
+     * </p>
+     * With more than one tab, fewer browser instances are started for the same pool size, which needs
+     * considerably less memory. In exchange, the tabs of a browser instance have to take turns sending
+     * their commands, and {@link CompletionDetection#MUTATION_OBSERVER} falls back to polling,
+     * because it would block the other tabs while waiting. The pool sizes count tabs in this case.
+     * <p>
+     * </p>
+     * Default value is 1.
+     */
+    public int getTabsPerBrowser() {
+        return tabsPerBrowser;
+    }
+
+    /**
+     * Whether browser instances are started with a lean profile.
+     * <p>
+     * </p>
+     * The lean profile turns off Chrome features which are not needed to translate, like background networking,
+     * extensions and images, limits the number of renderer processes and blocks the urls of
+     * {@link DeepLConfiguration#blockedUrls}. This reduces the memory usage and the page load time.
+     * With a remote WebDriver, the urls are not blocked.
+     * <p>
+     * </p>
+     * By default, the lean profile is disabled.
+     */
+    public boolean isLeanProfileEnabled() {
+        return leanProfile;
+    }
+
+    /**
+     * Url patterns which are not loaded if the lean profile is enabled, "*" matches any characters.
+     * <p>
+     * </p>
+     * By default, images, fonts, media and common analytics services are blocked.
+     */
+    public List<String> getBlockedUrls() {
+        return blockedUrls;
+    }
+
+    /**
+     * A Chrome user data directory which is seeded once by visiting the DeepL site and then copied
+     * for every new browser instance, so that they start with a warm HTTP cache and cookies.
+     * The directory is created if it doesn't exist and can be reused across runs.
+     * Is ignored for remote browser instances.
+     * <p>
+     * </p>
+     * By default, no template is used.
+     */
+    public Path getProfileTemplateDirectory() {
+        return profileTemplateDirectory;
+    }
+
+    /**
+     * The maximum number of browser instances a translator starts at the same time.
+     * Starting many browsers at once, e.g. to warm up a large pool, competes for CPU and slows down every start.
+     * <p>
+     * </p>
+     * Default value is 2.
+     */
+    public int getMaxConcurrentStarts() {
+        return maxConcurrentStarts;
+    }
+
+    /**
+     * The number of translations after which a browser instance is replaced, because long-lived
+     * DeepL tabs grow in memory and eventually hang. The replacement is started in the background
+     * before the old instance is quit. 0 means no limit.
+     * <p>
+     * </p>
+     * Default value is 0.
+     */
+    public int getMaxDriverUses() {
+        return maxDriverUses;
+    }
+
+    /**
+     * The age after which a browser instance is replaced in the background. Zero means no limit.
+     * <p>
+     * </p>
+     * Default value is zero.
+     */
+    public Duration getMaxDriverAge() {
+        return maxDriverAge;
+    }
+
+    /**
+     * The JavaScript heap size of the DeepL site in bytes after which a browser instance is replaced
+     * in the background. It is measured after every translation and only available in Chrome. It doesn't include
+     * the native, DOM and GPU memory of the browser, so it only catches a growing page. 0 means no limit.
+     * <p>
+     * </p>
+     * Default value is 0.
+     */
+    public long getMaxDriverHeapSize() {
+        return maxDriverHeapSize;
+    }
+
+    /**
+     * Whether the number of translations running at the same time adapts to the DeepL site. It starts at the
+     * min pool size, grows while translations stay fast and shrinks when they slow down or time out,
+     * so that the site isn't pushed into throttling. It never exceeds the max pool size. Requests waiting
+     * for the limit count towards the max queued requests.
+     * <p>
+     * </p>
+     * Default value is false.
+     */
+    public boolean isAdaptiveConcurrencyEnabled() {
+        return adaptiveConcurrency;
+    }
+
+    /**
+     * The maximum duration of a request including all its repetitions and the time it waits for a browser
+     * instance. No repetition is started which couldn't begin before it elapses. Zero means no limit,
+     * so that only {@link DeepLConfiguration#timeout} and {@link DeepLConfiguration#repetitions} apply.
+     * <p>
+     * </p>
+     * Default value is zero.
+     */
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * How many texts of a translation stream are translated at the same time per browser instance
+     * of the max pool size. Further texts are only pulled from the source stream when a translation was taken,
+     * so that the memory use doesn't depend on the length of the stream.
+     * <p>
+     * </p>
+     * Default value is 2.
+     *
+     * @see DeepLTranslator#translateStream(java.util.stream.Stream, SourceLanguage, TargetLanguage)
+     */
+    public int getStreamItemsPerBrowser() {
+        return streamItemsPerBrowser;
+    }
+
     public static class Builder {
 
         private Duration timeout;
@@ -132,12 +652,58 @@ public class DeepLConfiguration {
         private boolean postProcessing;
         private String remoteWebDriverUrl;
         private String userAgent;
+        private int minPoolSize;
+        private int maxPoolSize;
+        private int maxQueuedRequests;
+        private CompletionDetection completionDetection;
+        private Duration completionQuietPeriod;
+        private long cacheMaximumWeight;
+        private Duration cacheExpiration;
+        private Path persistentStoreDirectory;
+        private long persistentStoreMaximumSize;
+        private TranslationMetrics metrics;
+        private String websiteUrl;
+        private TextInput textInput;
+        private int tabsPerBrowser;
+        private boolean leanProfile;
+        private List<String> blockedUrls;
+        private Path profileTemplateDirectory;
+        private int maxConcurrentStarts;
+        private int maxDriverUses;
+        private Duration maxDriverAge;
+        private long maxDriverHeapSize;
+        private boolean adaptiveConcurrency;
+        private Duration requestTimeout;
+        private int streamItemsPerBrowser;
 
         public Builder() {
             timeout = Duration.ofSeconds(10);
             repetitions = 3;
             repetitionsDelay = retryNumber -> Duration.ofMillis(3000L + 5000L * retryNumber);
             postProcessing = false;
+            minPoolSize = 1;
+            maxPoolSize = 4;
+            maxQueuedRequests = 64;
+            completionDetection = CompletionDetection.POLLING;
+            completionQuietPeriod = Duration.ofMillis(250);
+            cacheMaximumWeight = 0;
+            cacheExpiration = Duration.ofHours(1);
+            persistentStoreMaximumSize = 256L << 20;
+            metrics = new MetricsRegistry();
+            websiteUrl = "https://www.deepl.com/translator";
+            textInput = TextInput.SEND_KEYS;
+            tabsPerBrowser = 1;
+            leanProfile = false;
+            blockedUrls = List.of("*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.svg", "*.ico",
+                    "*.woff", "*.woff2", "*.ttf", "*.otf", "*.mp4", "*.webm", "*.mp3",
+                    "*google-analytics.com*", "*googletagmanager.com*", "*doubleclick.net*", "*hotjar.com*");
+            maxConcurrentStarts = 2;
+            maxDriverUses = 0;
+            maxDriverAge = Duration.ZERO;
+            maxDriverHeapSize = 0;
+            adaptiveConcurrency = false;
+            requestTimeout = Duration.ZERO;
+            streamItemsPerBrowser = 2;
         }
 
         /**
@@ -148,7 +714,7 @@ public class DeepLConfiguration {
          * Default duration is 10 seconds.
          *
          * @see DeepLTranslatorBase#getTranslation(String, SourceLanguage,
-         *      TargetLanguage)
+         *      TargetLanguage, TranslationRequest)
          */
         public Builder setTimeout(Duration timeout) {
             this.timeout = timeout;
@@ -207,11 +773,345 @@ public class DeepLConfiguration {
             return this;
         }
 
+        /**
+         * The number of browser instances which are started eagerly
+         * when the translator is created and kept alive afterwards.
+         * <p>
+         * </p>
+         * Default value is 1.
+         */
+        public Builder setMinPoolSize(int minPoolSize) {
+            this.minPoolSize = minPoolSize;
+            return this;
+        }
+
+        /**
+         * The maximum number of browser instances a translator may start.
+         * If all of them are busy, further requests wait for a free one.
+         * <p>
+         * </p>
+         * Default value is 4.
+         */
+        public Builder setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+            return this;
+        }
+
+        /**
+         * The maximum number of requests waiting for a free browser instance.
+         * Requests exceeding this limit are rejected immediately.
+         * <p>
+         * </p>
+         * Default value is 64.
+         */
+        public Builder setMaxQueuedRequests(int maxQueuedRequests) {
+            this.maxQueuedRequests = maxQueuedRequests;
+            return this;
+        }
+
+        /**
+         * How the end of a translation on the DeepL site is detected.
+         * <p>
+         * </p>
+         * Default value is {@link CompletionDetection#POLLING}.
+         */
+        public Builder setCompletionDetection(CompletionDetection completionDetection) {
+            this.completionDetection = completionDetection;
+            return this;
+        }
+
+        /**
+         * The time the translation must not have changed before it is considered complete.
+         * Is only of use if {@link DeepLConfiguration#completionDetection} is
+         * {@link CompletionDetection#MUTATION_OBSERVER}.
+         * <p>
+         * </p>
+         * Default duration is 250 milliseconds.
+         */
+        public Builder setCompletionQuietPeriod(Duration completionQuietPeriod) {
+            this.completionQuietPeriod = completionQuietPeriod;
+            return this;
+        }
+
+        /**
+         * The maximum number of characters, of source texts and translations together,
+         * kept in the in-memory translation cache. 0 disables the cache.
+         * <p>
+         * </p>
+         * By default, the cache is disabled.
+         */
+        public Builder setCacheMaximumWeight(long cacheMaximumWeight) {
+            this.cacheMaximumWeight = cacheMaximumWeight;
+            return this;
+        }
+
+        /**
+         * Is only of use if {@link DeepLConfiguration#cacheMaximumWeight} isn't zero.
+         * Cached translations are discarded after this duration.
+         * <p>
+         * </p>
+         * Default duration is 1 hour.
+         */
+        public Builder setCacheExpiration(Duration cacheExpiration) {
+            this.cacheExpiration = cacheExpiration;
+            return this;
+        }
+
+        /**
+         * The directory of the persistent translation store, which keeps translations
+         * on disk across restarts. Null disables the store.
+         * <p>
+         * </p>
+         * By default, the store is disabled.
+         */
+        public Builder setPersistentStoreDirectory(Path persistentStoreDirectory) {
+            this.persistentStoreDirectory = persistentStoreDirectory;
+            return this;
+        }
+
+        /**
+         * Is only of use if {@link DeepLConfiguration#persistentStoreDirectory} isn't null.
+         * If the store grows beyond this size in bytes, it is compacted in the background
+         * and the oldest translations are dropped. The limit is 1 GiB.
+         * <p>
+         * </p>
+         * Default size is 256 MiB.
+         */
+        public Builder setPersistentStoreMaximumSize(long persistentStoreMaximumSize) {
+            this.persistentStoreMaximumSize = persistentStoreMaximumSize;
+            return this;
+        }
+
+        /**
+         * Receives the durations of the translation phases, counts of timeouts and retries
+         * and the gauges of the browser pool.
+         * <p>
+         * </p>
+         * By default, a new {@link MetricsRegistry} is used.
+         */
+        public Builder setMetrics(TranslationMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * The address of the DeepL translator page which is loaded into every browser instance.
+         * Only needs to be changed to run against a local copy of the page, e.g. for benchmarks.
+         * <p>
+         * </p>
+         * Default value is https://www.deepl.com/translator.
+         */
+        public Builder setWebsiteUrl(String websiteUrl) {
+            this.websiteUrl = websiteUrl;
+            return this;
+        }
+
+        /**
+         * How the source text is entered on the DeepL site.
+         * <p>
+         * </p>
+         * Default value is {@link TextInput#SEND_KEYS}.
+         */
+        public Builder setTextInput(TextInput textInput) {
+            this.textInput = textInput;
+            return this;
+        }
+
+        /**
+         * The number of DeepL tabs each browser instance hosts.
+         * <p>
+         * </p>
+         * With more than one tab, fewer browser instances are started for the same pool size, which needs
+         * considerably less memory. In exchange, the tabs of a browser instance have to take turns sending
+         * their commands, and {@link CompletionDetection#MUTATION_OBSERVER} falls back to polling,
+         * because it would block the other tabs while waiting. The pool sizes count tabs in this case.
+         * <p>
+         * </p>
+         * Default value is 1.
+         */
+        public Builder setTabsPerBrowser(int tabsPerBrowser) {
+            this.tabsPerBrowser = tabsPerBrowser;
+            return this;
+        }
+
+        /**
+         * Whether browser instances are started with a lean profile.
+         * <p>
+         * </p>
+         * The lean profile turns off Chrome features which are not needed to translate, like background networking,
+         * extensions and images, limits the number of renderer processes and blocks the urls of
+         * {@link DeepLConfiguration#blockedUrls}. This reduces the memory usage and the page load time.
+         * With a remote WebDriver, the urls are not blocked.
+         * <p>
+         * </p>
+         * By default, the lean profile is disabled.
+         */
+        public Builder setLeanProfile(boolean leanProfile) {
+            this.leanProfile = leanProfile;
+            return this;
+        }
+
+        /**
+         * Url patterns which are not loaded if the lean profile is enabled, "*" matches any characters.
+         * <p>
+         * </p>
+         * By default, images, fonts, media and common analytics services are blocked.
+         */
+        public Builder setBlockedUrls(List<String> blockedUrls) {
+            this.blockedUrls = blockedUrls;
+            return this;
+        }
+
+        /**
+         * A Chrome user data directory which is seeded once by visiting the DeepL site and then copied
+         * for every new browser instance, so that they start with a warm HTTP cache and cookies.
+         * The directory is created if it doesn't exist and can be reused across runs.
+         * Is ignored for remote browser instances.
+         * <p>
+         * </p>
+         * By default, no template is used.
+         */
+        public Builder setProfileTemplateDirectory(Path profileTemplateDirectory) {
+            this.profileTemplateDirectory = profileTemplateDirectory;
+            return this;
+        }
+
+        /**
+         * The maximum number of browser instances a translator starts at the same time.
+         * Starting many browsers at once, e.g. to warm up a large pool, competes for CPU and slows down every start.
+         * <p>
+         * </p>
+         * Default value is 2.
+         */
+        public Builder setMaxConcurrentStarts(int maxConcurrentStarts) {
+            this.maxConcurrentStarts = maxConcurrentStarts;
+            return this;
+        }
+
+        /**
+         * The number of translations after which a browser instance is replaced, because long-lived
+         * DeepL tabs grow in memory and eventually hang. The replacement is started in the background
+         * before the old instance is quit. 0 means no limit.
+         * <p>
+         * </p>
+         * Default value is 0.
+         */
+        public Builder setMaxDriverUses(int maxDriverUses) {
+            this.maxDriverUses = maxDriverUses;
+            return this;
+        }
+
+        /**
+         * The age after which a browser instance is replaced in the background. Zero means no limit.
+         * <p>
+         * </p>
+         * Default value is zero.
+         */
+        public Builder setMaxDriverAge(Duration maxDriverAge) {
+            this.maxDriverAge = maxDriverAge;
+            return this;
+        }
+
+        /**
+         * The JavaScript heap size of the DeepL site in bytes after which a browser instance is replaced
+         * in the background. It is measured after every translation and only available in Chrome. It doesn't include
+     * the native, DOM and GPU memory of the browser, so it only catches a growing page. 0 means no limit.
+         * <p>
+         * </p>
+         * Default value is 0.
+         */
+        public Builder setMaxDriverHeapSize(long maxDriverHeapSize) {
+            this.maxDriverHeapSize = maxDriverHeapSize;
+            return this;
+        }
+
+        /**
+         * Whether the number of translations running at the same time adapts to the DeepL site. It starts at the
+         * min pool size, grows while translations stay fast and shrinks when they slow down or time out,
+         * so that the site isn't pushed into throttling. It never exceeds the max pool size. Requests waiting
+         * for the limit count towards the max queued requests.
+         * <p>
+         * </p>
+         * Default value is false.
+         */
+        public Builder setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+            this.adaptiveConcurrency = adaptiveConcurrency;
+            return this;
+        }
+
+        /**
+         * The maximum duration of a request including all its repetitions and the time it waits for a browser
+         * instance. No repetition is started which couldn't begin before it elapses. Zero means no limit,
+         * so that only {@link DeepLConfiguration#timeout} and {@link DeepLConfiguration#repetitions} apply.
+         * <p>
+         * </p>
+         * Default value is zero.
+         */
+        public Builder setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * How many texts of a translation stream are translated at the same time per browser instance
+         * of the max pool size. Further texts are only pulled from the source stream when a translation was taken,
+         * so that the memory use doesn't depend on the length of the stream.
+         * <p>
+         * </p>
+         * Default value is 2.
+         *
+         * @see DeepLTranslator#translateStream(java.util.stream.Stream, SourceLanguage, TargetLanguage)
+         */
+        public Builder setStreamItemsPerBrowser(int streamItemsPerBrowser) {
+            this.streamItemsPerBrowser = streamItemsPerBrowser;
+            return this;
+        }
+
         /**
          * Builds the configuration.
          */
         public DeepLConfiguration build() {
-            return new DeepLConfiguration(timeout, repetitions, repetitionsDelay, postProcessing, remoteWebDriverUrl, userAgent);
+            if (maxPoolSize < 1) {
+                throw new IllegalStateException("Max pool size must be at least 1");
+            } else if (minPoolSize < 0 || minPoolSize > maxPoolSize) {
+                throw new IllegalStateException("Min pool size must be between 0 and max pool size");
+            } else if (maxQueuedRequests < 0) {
+                throw new IllegalStateException("Max queued requests must not be negative");
+            } else if (cacheMaximumWeight < 0) {
+                throw new IllegalStateException("Cache maximum weight must not be negative");
+            } else if (cacheExpiration == null || cacheExpiration.isNegative()) {
+                throw new IllegalStateException("Cache expiration must not be null or negative");
+            } else if (metrics == null) {
+                throw new IllegalStateException("Metrics are null, use TranslationMetrics.NONE to disable them");
+            } else if (tabsPerBrowser < 1) {
+                throw new IllegalStateException("Tabs per browser must be at least 1");
+            } else if (maxConcurrentStarts < 1) {
+                throw new IllegalStateException("Max concurrent starts must be at least 1");
+            } else if (maxDriverUses < 0) {
+                throw new IllegalStateException("Max driver uses must not be negative");
+            } else if (maxDriverAge == null || maxDriverAge.isNegative()) {
+                throw new IllegalStateException("Max driver age must not be null or negative");
+            } else if (maxDriverHeapSize < 0) {
+                throw new IllegalStateException("Max driver heap size must not be negative");
+            } else if (completionDetection == null) {
+                throw new IllegalStateException("Completion detection must not be null");
+            } else if (completionQuietPeriod == null || completionQuietPeriod.isNegative()) {
+                throw new IllegalStateException("Completion quiet period must not be null or negative");
+            } else if (requestTimeout == null || requestTimeout.isNegative()) {
+                throw new IllegalStateException("Request timeout must not be null or negative");
+            } else if (streamItemsPerBrowser < 1) {
+                throw new IllegalStateException("Stream items per browser must be at least 1");
+            } else if (blockedUrls == null) {
+                throw new IllegalStateException("Blocked urls must not be null");
+            } else if (websiteUrl == null) {
+                throw new IllegalStateException("Website url must not be null");
+            } else if (textInput == null) {
+                throw new IllegalStateException("Text input must not be null");
+            } else if (persistentStoreMaximumSize <= 0 || persistentStoreMaximumSize > 1L << 30) {
+                throw new IllegalStateException("Persistent store maximum size must be between 1 byte and 1 GiB");
+            }
+
+            return new DeepLConfiguration(this);
         }
 
     }
@@ -1,7 +1,19 @@
 package de.linus.deepltranslator;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.openqa.selenium.TimeoutException;
 
@@ -40,35 +52,462 @@ public class DeepLTranslator extends DeepLTranslatorBase {
      * @throws Exception an exception
      */
     public String translate(String text, SourceLanguage from, TargetLanguage to) throws IllegalStateException, TimeoutException {
-        isValid(text, from, to);
+        return translate(text, from, to, TranslationPriority.NORMAL);
+    }
+
+    /**
+     * Translates a text with the given priority. When a browser becomes free, it is handed
+     * to the waiting request with the highest priority.
+     *
+     * @see DeepLTranslator#translate(String, SourceLanguage, TargetLanguage)
+     */
+    public String translate(String text, SourceLanguage from, TargetLanguage to, TranslationPriority priority)
+            throws IllegalStateException, TimeoutException {
+        isValid(text, from, to, priority);
 
-        TimeoutException timeoutException = null;
+        String cached = getCachedTranslation(text, from, to);
+
+        if (cached != null)
+            return cached;
+
+        String translation = translateUncached(text, from, to, priority);
+        cacheTranslation(text, from, to, translation);
+        return translation;
+    }
+
+    /**
+     * Translates the text in a browser, repeating the request on timeouts until the request timeout elapses.
+     */
+    private String translateUncached(String text, SourceLanguage from, TargetLanguage to,
+            TranslationPriority priority) throws TimeoutException {
+        TranslationRequest request = new TranslationRequest(priority, getConfiguration().getRequestTimeout(), false);
 
-        for (int i = 0; i <= getConfiguration().getRepetitions(); i++) {
+        for (int retryNumber = 0; ; retryNumber++) {
             try {
-                return getTranslation(text, from, to);
+                return postProcess(getTranslation(text, from, to, request));
             } catch (TimeoutException e) {
-                try {
-                    Thread.sleep(getConfiguration().getRepetitionsDelay().apply(i).toMillis());
-                } catch (InterruptedException ignore) {}
+                Duration delay = getConfiguration().getRepetitionsDelay().apply(retryNumber);
+
+                if (!shouldRetry(retryNumber) || !request.allowsRetryAfter(delay))
+                    throw e;
 
-                timeoutException = e;
+                getConfiguration().getMetrics().increment(TranslationEvent.RETRY);
+                try {
+                    request.sleep(delay);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
             }
         }
+    }
 
-        if (timeoutException != null)
-            throw timeoutException;
+    /**
+     * Translates the text in a browser, repeating the request on timeouts.
+     * <p></p>
+     * The delay before a repetition is scheduled on a timer, so no thread and no browser is held while waiting.
+     * A cancelled request is not repeated.
+     */
+    private CompletableFuture<String> translateUncachedAsync(String text, SourceLanguage from, TargetLanguage to,
+            TranslationRequest request) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        executor.execute(() -> attempt(text, from, to, request, 0, result));
+        return result;
+    }
 
-        return null;
+    /**
+     * One attempt of an async translation, which schedules the next attempt itself, so that a repetition
+     * is still accepted after {@link DeepLTranslator#awaitTermination(long, TimeUnit)} was called.
+     */
+    private void attempt(String text, SourceLanguage from, TargetLanguage to, TranslationRequest request,
+            int retryNumber, CompletableFuture<String> result) {
+        try {
+            result.complete(getTranslation(text, from, to, request));
+        } catch (TimeoutException e) {
+            Duration delay = getConfiguration().getRepetitionsDelay().apply(retryNumber);
+
+            if (!shouldRetry(retryNumber) || !request.allowsRetryAfter(delay)) {
+                result.completeExceptionally(e);
+                return;
+            }
+
+            getConfiguration().getMetrics().increment(TranslationEvent.RETRY);
+
+            try {
+                executor.continueAfter(() -> attempt(text, from, to, request, retryNumber + 1, result),
+                        delay.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(e);
+            }
+        } catch (Throwable e) {
+            if (e instanceof CancellationException)
+                getConfiguration().getMetrics().increment(TranslationEvent.CANCELLED);
+
+            result.completeExceptionally(e);
+        }
     }
 
     /**
+     * Whether a request which timed out should be repeated.
+     *
+     * @param retryNumber 0 for the first repetition
+     */
+    private boolean shouldRetry(int retryNumber) {
+        int repetitions = getConfiguration().getRepetitions();
+        return repetitions < 0 || retryNumber < repetitions;
+    }
+
+    /**
+     * Identical translations which are requested while one of them is still running
+     * share the result of the running translation.
+     * <p></p>
+     * Cancelling the returned future, e.g. by {@link CompletableFuture#orTimeout(long, TimeUnit)}, stops the
+     * translation as soon as no other request shares it. It then no longer waits for a browser,
+     * or the browser is reset and handed to the next request.
+     *
      * @see DeepLTranslator#translate(String, SourceLanguage, TargetLanguage)
      */
     public CompletableFuture<String> translateAsync(String text, SourceLanguage from, TargetLanguage to) throws IllegalStateException {
-        isValid(text, from, to);
+        return translateAsync(text, from, to, TranslationPriority.NORMAL);
+    }
+
+    /**
+     * Translates a text with the given priority. A request which shares the result of an identical running
+     * translation keeps the priority of the running translation.
+     *
+     * @see DeepLTranslator#translateAsync(String, SourceLanguage, TargetLanguage)
+     * @see DeepLTranslator#translate(String, SourceLanguage, TargetLanguage, TranslationPriority)
+     */
+    public CompletableFuture<String> translateAsync(String text, SourceLanguage from, TargetLanguage to,
+            TranslationPriority priority) throws IllegalStateException {
+        isValid(text, from, to, priority);
+
+        String cached = getCachedTranslation(text, from, to);
+
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+
+        TranslationRequest request = new TranslationRequest(priority, getConfiguration().getRequestTimeout(), true);
+
+        return inFlight.join(text, from, to, () -> translateUncachedAsync(text, from, to, request)
+                .thenApply(raw -> {
+                    String translation = postProcess(raw);
+                    cacheTranslation(text, from, to, translation);
+                    return translation;
+                }), request::cancel);
+    }
+
+    /**
+     * Translates many short texts, each limited to 5000 characters,
+     * from a {@code SourceLanguage} to a {@code TargetLanguage}.
+     * <p></p>
+     * The texts are packed into as few submissions of at most 5000 characters as possible,
+     * separated by blank lines, and the translation is split back into one translation per text.
+     * If the paragraphs of a submission can't be matched to its texts anymore,
+     * these texts are translated one by one instead.
+     * Leading and trailing whitespace of the texts is not preserved.
+     * <p></p>
+     * Possible reasons for exceptions:
+     * <p>- texts are null or one of the texts is null or empty
+     * <p>- {@code SourceLanguage} or {@code TargetLanguage} is null
+     * <p>- the length of one of the texts exceeds the limit of 5000 characters
+     *
+     * @param texts source texts
+     * @param from source language
+     * @param to target language
+     *
+     * @return the translations in the order of the texts
+     */
+    public List<String> translateBatch(List<String> texts, SourceLanguage from, TargetLanguage to)
+            throws IllegalStateException, TimeoutException {
+        return translateBatch(texts, from, to, TranslationPriority.NORMAL);
+    }
+
+    /**
+     * Translates many short texts with the given priority, e.g. {@link TranslationPriority#LOW} for bulk jobs
+     * which shouldn't delay interactive requests.
+     *
+     * @see DeepLTranslator#translateBatch(List, SourceLanguage, TargetLanguage)
+     */
+    public List<String> translateBatch(List<String> texts, SourceLanguage from, TargetLanguage to,
+            TranslationPriority priority) throws IllegalStateException, TimeoutException {
+        try {
+            return translateBatchAsync(texts, from, to, priority).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+
+            throw e;
+        }
+    }
+
+    /**
+     * @see DeepLTranslator#translateBatch(List, SourceLanguage, TargetLanguage)
+     */
+    public CompletableFuture<List<String>> translateBatchAsync(List<String> texts, SourceLanguage from, TargetLanguage to)
+            throws IllegalStateException {
+        return translateBatchAsync(texts, from, to, TranslationPriority.NORMAL);
+    }
+
+    /**
+     * @see DeepLTranslator#translateBatch(List, SourceLanguage, TargetLanguage, TranslationPriority)
+     */
+    public CompletableFuture<List<String>> translateBatchAsync(List<String> texts, SourceLanguage from,
+            TargetLanguage to, TranslationPriority priority) throws IllegalStateException {
+        if (texts == null)
+            throw new IllegalStateException("Texts are null");
+
+        texts.forEach(text -> isValid(text, from, to, priority));
+
+        // Every distinct text is translated only once
+        Map<String, Integer> textToIndex = new HashMap<>();
+        List<String> distinctTexts = new ArrayList<>();
+
+        for (String text : texts) {
+            textToIndex.computeIfAbsent(text, key -> {
+                distinctTexts.add(key);
+                return distinctTexts.size() - 1;
+            });
+        }
+
+        String[] translations = new String[distinctTexts.size()];
+        List<String> uncachedTexts = new ArrayList<>();
+        List<Integer> uncachedIndices = new ArrayList<>();
+
+        for (int i = 0; i < distinctTexts.size(); i++) {
+            String cached = getCachedTranslation(distinctTexts.get(i), from, to);
+
+            if (cached != null) {
+                translations[i] = cached;
+            } else {
+                uncachedTexts.add(distinctTexts.get(i));
+                uncachedIndices.add(i);
+            }
+        }
+
+        // All submissions share one request, so that cancelling the batch stops all of them
+        TranslationRequest request = new TranslationRequest(priority, getConfiguration().getRequestTimeout(), true);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        List<CompletableFuture<String>> singles = new ArrayList<>();
+        CompletableFuture<List<String>> result = new CompletableFuture<>();
 
-        return CompletableFuture.supplyAsync(() -> translate(text, from, to), executor);
+        for (TextBatch batch : TextBatch.pack(uncachedTexts, MAX_TEXT_LENGTH)) {
+            futures.add(translateUncachedAsync(batch.getText(), from, to, request).thenCompose(translation -> {
+                List<String> parts = translation == null ? null : batch.split(translation, this::postProcess);
+
+                if (parts != null) {
+                    for (int i = 0; i < parts.size(); i++) {
+                        int index = uncachedIndices.get(batch.getIndices().get(i));
+                        translations[index] = parts.get(i);
+                        cacheTranslation(distinctTexts.get(index), from, to, parts.get(i));
+                    }
+
+                    return CompletableFuture.completedFuture(null);
+                }
+
+                // The delimiters got lost, translate the texts one by one
+                return CompletableFuture.allOf(batch.getIndices().stream()
+                        .map(uncachedIndices::get)
+                        .map(index -> {
+                            CompletableFuture<String> single = translateAsync(distinctTexts.get(index), from, to,
+                                    priority);
+
+                            synchronized (singles) {
+                                singles.add(single);
+                            }
+
+                            // The batch may have been cancelled meanwhile
+                            if (result.isCompletedExceptionally()) {
+                                single.cancel(false);
+                            }
+
+                            return single.thenAccept(translated -> translations[index] = translated);
+                        })
+                        .toArray(CompletableFuture[]::new));
+            }));
+        }
+
+        futures.forEach(future -> future.whenComplete((ignore, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(unwrap(ex));
+            }
+        }));
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenRun(() -> result.complete(texts.stream()
+                        .map(text -> translations[textToIndex.get(text)])
+                        .toList()));
+
+        // Stop the remaining submissions once one of them failed or the batch was cancelled
+        result.whenComplete((ignore, ex) -> {
+            if (ex != null) {
+                request.cancel();
+
+                synchronized (singles) {
+                    singles.forEach(single -> single.cancel(false));
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Translates a text of any length from a {@code SourceLanguage} to a {@code TargetLanguage}.
+     * <p></p>
+     * The text is split at sentence and paragraph boundaries into chunks of at most 5000 characters,
+     * which are translated in parallel by the browsers of this translator.
+     * The translations are joined in order, keeping the whitespace around each chunk.
+     * <p></p>
+     * Possible reasons for exceptions:
+     * <p>- text is null or empty
+     * <p>- {@code SourceLanguage} or {@code TargetLanguage} is null
+     *
+     * @param text source text
+     * @param from source language
+     * @param to target language
+     *
+     * @return the translation
+     */
+    public String translateLongText(String text, SourceLanguage from, TargetLanguage to)
+            throws IllegalStateException, TimeoutException {
+        return translateLongText(text, from, to, TranslationPriority.NORMAL);
+    }
+
+    /**
+     * Translates a text of any length with the given priority.
+     *
+     * @see DeepLTranslator#translateLongText(String, SourceLanguage, TargetLanguage)
+     */
+    public String translateLongText(String text, SourceLanguage from, TargetLanguage to, TranslationPriority priority)
+            throws IllegalStateException, TimeoutException {
+        try {
+            return translateLongTextAsync(text, from, to, priority).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+
+            throw e;
+        }
+    }
+
+    /**
+     * @see DeepLTranslator#translateLongText(String, SourceLanguage, TargetLanguage)
+     */
+    public CompletableFuture<String> translateLongTextAsync(String text, SourceLanguage from, TargetLanguage to)
+            throws IllegalStateException {
+        return translateLongTextAsync(text, from, to, TranslationPriority.NORMAL);
+    }
+
+    /**
+     * @see DeepLTranslator#translateLongText(String, SourceLanguage, TargetLanguage, TranslationPriority)
+     */
+    public CompletableFuture<String> translateLongTextAsync(String text, SourceLanguage from, TargetLanguage to,
+            TranslationPriority priority) throws IllegalStateException {
+        isValid(text, from, to, Integer.MAX_VALUE);
+        isValid(priority);
+
+        List<CompletableFuture<String>> translations = new ArrayList<>();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        for (String chunk : TextChunker.split(text, from, MAX_TEXT_LENGTH)) {
+            String core = chunk.strip();
+
+            if (core.isEmpty()) {
+                futures.add(CompletableFuture.completedFuture(chunk));
+                continue;
+            }
+
+            int coreStart = chunk.indexOf(core);
+            String leading = chunk.substring(0, coreStart);
+            String trailing = chunk.substring(coreStart + core.length());
+
+            CompletableFuture<String> translation = translateAsync(core, from, to, priority);
+            translations.add(translation);
+            futures.add(translation.thenApply(
+                    translated -> leading + (translated == null ? "" : translated.strip()) + trailing));
+        }
+
+        futures.forEach(future -> future.whenComplete((ignore, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(unwrap(ex));
+            }
+        }));
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenRun(() -> result.complete(futures.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.joining())));
+
+        // Stop the remaining chunks once one of them failed or the result was cancelled
+        result.whenComplete((ignore, ex) -> {
+            if (ex != null) {
+                translations.forEach(translation -> translation.cancel(false));
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Translates a stream of texts of any number, each limited to 5000 characters,
+     * from a {@code SourceLanguage} to a {@code TargetLanguage}.
+     * <p></p>
+     * Texts are pulled from the source stream while the translations are consumed, and only a few of them
+     * are translated at the same time, see {@link DeepLConfiguration#getStreamItemsPerBrowser()}.
+     * So the memory use stays the same no matter how many texts the source stream has.
+     * The translations are returned in the order of the texts.
+     * <p></p>
+     * Closing the returned stream cancels the running translations and closes the source stream.
+     * <p></p>
+     * Possible reasons for exceptions:
+     * <p>- texts are null or one of the texts is null or empty
+     * <p>- {@code SourceLanguage} or {@code TargetLanguage} is null
+     * <p>- the length of one of the texts exceeds the limit of 5000 characters
+     * <p>- a translation failed, which cancels the remaining ones
+     *
+     * @param texts source texts
+     * @param from source language
+     * @param to target language
+     *
+     * @return the texts with their translations
+     */
+    public Stream<TranslatedText> translateStream(Stream<String> texts, SourceLanguage from, TargetLanguage to)
+            throws IllegalStateException {
+        return translateStream(texts, from, to, TranslationPriority.NORMAL, true);
+    }
+
+    /**
+     * Translates a stream of texts with the given priority. If not ordered, each translation is returned as soon
+     * as it is complete, so that a slow text doesn't hold back the others.
+     *
+     * @see DeepLTranslator#translateStream(Stream, SourceLanguage, TargetLanguage)
+     */
+    public Stream<TranslatedText> translateStream(Stream<String> texts, SourceLanguage from, TargetLanguage to,
+            TranslationPriority priority, boolean ordered) throws IllegalStateException {
+        if (texts == null)
+            throw new IllegalStateException("Texts are null");
+        else if (from == null || to == null)
+            throw new IllegalStateException("Language is null");
+
+        isValid(priority);
+
+        int maxInFlight = getConfiguration().getMaxPoolSize() * getConfiguration().getStreamItemsPerBrowser();
+        TranslationStream translations = new TranslationStream(texts.iterator(),
+                text -> translateAsync(text, from, to, priority), maxInFlight, ordered);
+        int characteristics = ordered ? Spliterator.ORDERED : 0;
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(translations, characteristics), false)
+                .onClose(translations::close)
+                .onClose(texts::close);
+    }
+
+    /**
+     * The actual exception of a failed stage.
+     */
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
     }
 
     /**
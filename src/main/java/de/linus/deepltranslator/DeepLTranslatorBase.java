@@ -1,17 +1,24 @@
 package de.linus.deepltranslator;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
+import com.google.common.cache.CacheStats;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.remote.RemoteWebDriver;
-import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
@@ -21,33 +28,42 @@ import org.openqa.selenium.support.ui.WebDriverWait;
 class DeepLTranslatorBase {
 
     /**
-     * For asynchronous translating.
+     * The maximum number of characters DeepL translates at once.
+     */
+    static final int MAX_TEXT_LENGTH = 5000;
+
+    /**
+     * For asynchronous translating, running on the {@link SharedRuntime}.
      *
      * @see DeepLTranslator#translateAsync(String, SourceLanguage, TargetLanguage)
      */
-    final ExecutorService executor = Executors.newCachedThreadPool();
+    final TranslatorExecutor executor = new TranslatorExecutor(SharedRuntime::execute);
 
     /**
-     * All executors used for asynchronous translating.
+     * Asynchronous translations currently running in this instance.
+     *
+     * @see DeepLTranslator#translateAsync(String, SourceLanguage, TargetLanguage)
      */
-    static final List<ExecutorService> EXECUTOR_LIST = new ArrayList<>();
+    final InFlightTranslations inFlight = new InFlightTranslations();
 
     /**
-     * For cleaning up the input field on the DeepL site.
-     *
-     * @see DeepLTranslator#translate(String, SourceLanguage, TargetLanguage)
+     * All executors used for asynchronous translating.
      */
-    static ExecutorService CLEANUP_EXECUTOR;
+    static final List<ExecutorService> EXECUTOR_LIST = new CopyOnWriteArrayList<>();
 
     /**
      * All browser instances created.
      */
-    static final List<WebDriver> GLOBAL_INSTANCES = new ArrayList<>();
+    static final List<WebDriver> GLOBAL_INSTANCES = new CopyOnWriteArrayList<>();
 
     /**
-     * Available browser instances for this configuration.
+     * All translators which weren't closed yet, with their browser pools and persistent stores.
      */
-    private static final LinkedBlockingQueue<WebDriver> AVAILABLE_INSTANCES = new LinkedBlockingQueue<>();
+    static final List<DeepLTranslatorBase> TRANSLATOR_LIST = new CopyOnWriteArrayList<>();
+
+    private static final By SOURCE_TEXTAREA_BY = By.className("lmt__source_textarea");
+    private static final By LANGUAGE_SELECT_BY = By.className("lmt__language_select__active");
+    private static final By CLEAR_BUTTON_BY = By.className("lmt__clear_text_button_wrapper");
 
     /**
      * Script to disable animations on a website.
@@ -81,6 +97,41 @@ class DeepLTranslatorBase {
             "</style>\\n" +
             "\");";
 
+    /**
+     * Script to empty the source text in a single round trip. The input event lets the DeepL site
+     * clear the translation as if the text had been deleted by the user.
+     * Returns the JavaScript heap size, which decides whether the browser instance is recycled.
+     */
+    private static final String RESET_PAGE_SCRIPT = "var source = document.querySelector('.lmt__source_textarea');" +
+            "source.value = '';" +
+            "source.dispatchEvent(new Event('input', {bubbles: true}));" +
+            "['source-dummydiv', 'target-dummydiv'].forEach(function (id) {" +
+            "  var element = document.getElementById(id);" +
+            "  if (element) { element.innerHTML = ''; }" +
+            "});" +
+            "return window.performance && performance.memory ? performance.memory.usedJSHeapSize : 0;";
+
+    /**
+     * Script to check whether the source text, its copy and the translation are empty.
+     */
+    private static final String IS_PAGE_RESET_SCRIPT = "var source = document.querySelector('.lmt__source_textarea');" +
+            "var blank = function (id) {" +
+            "  var element = document.getElementById(id);" +
+            "  return element !== null && element.innerHTML.trim().length === 0;" +
+            "};" +
+            "return source !== null && source.value.length === 0" +
+            "    && blank('source-dummydiv') && blank('target-dummydiv');";
+
+    /**
+     * Script to insert the whole source text at once and fire a single input event, for browsers without
+     * DevTools access. Returns whether the text was inserted.
+     */
+    private static final String INSERT_TEXT_SCRIPT = "var source = arguments[0];" +
+            "source.focus();" +
+            "source.value = arguments[1];" +
+            "source.dispatchEvent(new Event('input', {bubbles: true}));" +
+            "return source.value === arguments[1];";
+
     /**
      * For debugging purposes.
      */
@@ -92,13 +143,42 @@ class DeepLTranslatorBase {
      */
     private final DeepLConfiguration configuration;
 
+    /**
+     * Browser instances of this translator.
+     */
+    private final WebDriverPool pool;
+
+    /**
+     * Adapts the number of translations running at the same time to the DeepL site,
+     * or null if adaptive concurrency is disabled.
+     */
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * Limits how many browser instances are started at the same time.
+     */
+    private final Semaphore startPermits;
+
+    /**
+     * Gauges registered by this translator.
+     */
+    private final List<GaugeRegistration> gauges = new ArrayList<>();
+
+    /**
+     * Translations of this translator, or null if caching is disabled.
+     */
+    private final TranslationCache cache;
+
+    /**
+     * Translations persisted on disk, or null if the persistent store is disabled.
+     */
+    private final PersistentTranslationStore store;
+
     /**
      * With default settings.
      */
     DeepLTranslatorBase() {
-        this.configuration = new DeepLConfiguration.Builder().build();
-        EXECUTOR_LIST.add(executor);
-        CLEANUP_EXECUTOR = Executors.newCachedThreadPool();
+        this(new DeepLConfiguration.Builder().build());
     }
 
     /**
@@ -106,154 +186,585 @@ class DeepLTranslatorBase {
      */
     DeepLTranslatorBase(DeepLConfiguration configuration) {
         this.configuration = configuration;
+        this.startPermits = new Semaphore(configuration.getMaxConcurrentStarts());
         EXECUTOR_LIST.add(executor);
-        CLEANUP_EXECUTOR = Executors.newCachedThreadPool();
+        this.cache = configuration.getCacheMaximumWeight() > 0 ? new TranslationCache(configuration) : null;
+        this.store = configuration.getPersistentStoreDirectory() != null
+                ? new PersistentTranslationStore(configuration) : null;
+
+        Supplier<PooledDriver> factory;
+
+        if (configuration.getTabsPerBrowser() > 1) {
+            factory = new BrowserTabs(configuration.getTabsPerBrowser(), this::newDriver, this::loadPageInNewTab)::open;
+        } else {
+            factory = this::newPooledDriver;
+        }
+
+        this.pool = new WebDriverPool(configuration, factory, this::shouldRetire, SharedRuntime::execute);
+        this.limiter = configuration.isAdaptiveConcurrencyEnabled() ? new ConcurrencyLimiter(
+                configuration.getMinPoolSize(), configuration.getMaxPoolSize(), configuration.getMaxQueuedRequests(),
+                configuration.getMetrics()) : null;
+        TRANSLATOR_LIST.add(this);
+        registerGauges();
+        pool.warmUp();
+    }
+
+    private void registerGauges() {
+        registerGauge("pool_idle_drivers", "Browser instances ready to be used.", pool::getIdleCount);
+        registerGauge("pool_busy_drivers", "Browser instances translating, cleaning up or starting.",
+                () -> pool.getTotalCount() - pool.getIdleCount());
+        registerGauge("pool_total_drivers", "Browser instances started.", pool::getTotalCount);
+        registerGauge("pool_queued_requests", "Requests waiting for a browser instance.", pool::getQueuedCount);
+
+        for (TranslationPriority priority : TranslationPriority.values()) {
+            registerGauge("queued_requests_" + priority.getMetricName(),
+                    "Requests of " + priority.getMetricName() + " priority waiting to be translated.",
+                    () -> pool.getQueuedCount(priority) + (limiter != null ? limiter.getQueuedCount(priority) : 0));
+        }
+
+        if (limiter != null) {
+            registerGauge("concurrency_limit", "Translations allowed to run at the same time.",
+                    limiter::getLimit);
+            registerGauge("concurrency_in_flight", "Translations running within the concurrency limit.",
+                    limiter::getInFlightCount);
+            registerGauge("concurrency_queued_requests", "Requests waiting for the concurrency limit.",
+                    limiter::getQueuedCount);
+        }
+    }
+
+    /**
+     * Registers a gauge of this translator, which is removed again when it is closed.
+     */
+    private void registerGauge(String name, String help, Supplier<? extends Number> value) {
+        configuration.getMetrics().registerGauge(name, help, value);
+        gauges.add(new GaugeRegistration(name, value));
     }
 
     /**
      * Checks if all arguments are valid, if not, an exception is thrown.
      */
     void isValid(String text, SourceLanguage from, TargetLanguage to) throws IllegalStateException {
+        isValid(text, from, to, MAX_TEXT_LENGTH);
+    }
+
+    /**
+     * Checks if all arguments are valid, if not, an exception is thrown.
+     */
+    void isValid(String text, SourceLanguage from, TargetLanguage to, TranslationPriority priority)
+            throws IllegalStateException {
+        isValid(text, from, to);
+        isValid(priority);
+    }
+
+    /**
+     * Checks if the priority is valid, if not, an exception is thrown.
+     */
+    void isValid(TranslationPriority priority) throws IllegalStateException {
+        if (priority == null) {
+            throw new IllegalStateException("Priority is null");
+        }
+    }
+
+    /**
+     * Checks if all arguments are valid, if not, an exception is thrown.
+     */
+    void isValid(String text, SourceLanguage from, TargetLanguage to, int maxLength) throws IllegalStateException {
         if (text == null || text.trim().isEmpty()) {
             throw new IllegalStateException("Text is null or empty");
         } else if (from == null || to == null) {
             throw new IllegalStateException("Language is null");
-        } else if (text.length() > 5000) {
-            throw new IllegalStateException("Text length is limited to 5000 characters");
+        } else if (text.length() > maxLength) {
+            throw new IllegalStateException("Text length is limited to " + maxLength + " characters");
         }
     }
 
     /**
-     * Generates a request with all settings like timeout etc.
-     * and returns the translation if succeeded.
+     * Returns the translation from the in-memory cache or the persistent store,
+     * or null if there is none or both are disabled.
      */
-    String getTranslation(String text, SourceLanguage from, TargetLanguage to) throws TimeoutException {
-        long timeoutMillisEnd = System.currentTimeMillis() + configuration.getTimeout().toMillis();
-        WebDriver driver = AVAILABLE_INSTANCES.poll();
+    String getCachedTranslation(String text, SourceLanguage from, TargetLanguage to) {
+        String translation = cache == null ? null : cache.get(text, from, to);
 
-        try {
-            if (driver == null) {
-                WebDriverBuilder.REMOTE_WEBDRIVER_URL = configuration.getRemoteWebDriverUrl();
-                WebDriverBuilder.USER_AGENT = configuration.getUserAgent();
-                WebDriverBuilder.TIMEOUT = configuration.getTimeout();
+        if (translation == null && store != null) {
+            translation = store.get(text, from, to);
 
-                driver = WebDriverBuilder.builder().headless(HEADLESS).build();
+            if (translation != null && cache != null) {
+                cache.put(text, from, to, translation);
+            }
+        }
 
-                GLOBAL_INSTANCES.add(driver);
-                driver.get("https://www.deepl.com/translator");
-                ((RemoteWebDriver) driver).executeScript(DISABLE_ANIMATIONS_SCRIPT);
+        return translation;
+    }
 
+    /**
+     * Puts the translation into the in-memory cache and the persistent store if they are enabled.
+     */
+    void cacheTranslation(String text, SourceLanguage from, TargetLanguage to, String translation) {
+        if (cache != null) {
+            cache.put(text, from, to, translation);
+        }
+
+        if (store != null) {
+            store.put(text, from, to, translation);
+        }
+    }
+
+    /**
+     * Generates a request with all settings like timeout etc.
+     * and returns the translation if succeeded, not post-processed yet.
+     */
+    String getTranslation(String text, SourceLanguage from, TargetLanguage to, TranslationRequest request)
+            throws TimeoutException, CancellationException {
+        request.throwIfCancelled();
+        long timeoutMillisEnd = request.limit(System.currentTimeMillis() + configuration.getTimeout().toMillis());
+        LanguagePair languagePair = new LanguagePair(from, to);
+        TranslationMetrics metrics = configuration.getMetrics();
+        PooledDriver pooledDriver;
+        long phaseStart = System.nanoTime();
+
+        try {
+            if (limiter != null) {
+                limiter.acquire(request, timeoutMillisEnd);
             }
-        } catch (
 
-        TimeoutException e) {
-            GLOBAL_INSTANCES.remove(driver);
-            if (driver != null) {
-                driver.close();
+            try {
+                pooledDriver = acquireLiveDriver(languagePair, request, timeoutMillisEnd);
+            } catch (RuntimeException e) {
+                if (limiter != null) {
+                    limiter.release();
+                }
+                throw e;
             }
+        } catch (TimeoutException e) {
+            metrics.increment(TranslationEvent.TIMEOUT);
+            throw e;
+        } catch (RejectedExecutionException e) {
+            metrics.increment(TranslationEvent.REJECTED);
+            throw e;
+        } finally {
+            recordPhase(TranslationPhase.ACQUIRE, phaseStart);
+        }
+
+        if (limiter == null) {
+            return translate(pooledDriver, text, languagePair, request, timeoutMillisEnd);
+        }
+
+        // Only timeouts of the DeepL site itself are a sign of throttling, waiting for a browser instance is not
+        long start = System.nanoTime();
+
+        try {
+            String result = translate(pooledDriver, text, languagePair, request, timeoutMillisEnd);
+            limiter.release(false, System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            limiter.release(true, System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException e) {
+            limiter.release();
             throw e;
         }
+    }
+
+    /**
+     * Translates the text with a browser instance taken from the pool and hands it back afterwards.
+     * If the request is cancelled meanwhile, the browser instance is reset and handed back right away.
+     */
+    private String translate(PooledDriver pooledDriver, String text, LanguagePair languagePair,
+            TranslationRequest request, long timeoutMillisEnd) throws TimeoutException, CancellationException {
+        TranslationMetrics metrics = configuration.getMetrics();
+        WebDriver driver = pooledDriver.getDriver();
+        long phaseStart;
 
         try {
-            closeCromeExtensionInstallDialog(timeoutMillisEnd, driver);
+            if (pooledDriver.isValidationPending()) {
+                validatePage(timeoutMillisEnd, pooledDriver, request);
+            }
 
-            // Source language button
-            driver.findElements(By.className("lmt__language_select__active")).get(0).click();
-            By srcButtonBy = By.xpath("//button[@dl-test='" + from.getAttributeValue() + "']");
-            WebDriverWait waitSource = new WebDriverWait(driver,
-                    Duration.ofMillis(timeoutMillisEnd - System.currentTimeMillis()));
-            waitSource.until(ExpectedConditions.visibilityOfElementLocated(srcButtonBy));
-            driver.findElement(srcButtonBy).click();
+            closeCromeExtensionInstallDialog(timeoutMillisEnd, driver, request);
+            request.throwIfCancelled();
 
-            // Target language button
-            driver.findElements(By.className("lmt__language_select__active")).get(1).click();
-            By targetButtonBy = By.xpath("//button[@dl-test='" + to.getAttributeValue() + "']");
-            WebDriverWait waitTarget = new WebDriverWait(driver,
-                    Duration.ofMillis(timeoutMillisEnd - System.currentTimeMillis()));
-            waitTarget.until(ExpectedConditions.visibilityOfElementLocated(targetButtonBy));
-            driver.findElement(targetButtonBy).click();
+            if (!languagePair.equals(pooledDriver.getLanguagePair())) {
+                phaseStart = System.nanoTime();
+                selectLanguages(timeoutMillisEnd, pooledDriver, request, languagePair.from(), languagePair.to());
+                pooledDriver.setLanguagePair(languagePair);
+                recordPhase(TranslationPhase.LANGUAGE_SELECTION, phaseStart);
+            }
         } catch (TimeoutException e) {
-            AVAILABLE_INSTANCES.offer(driver);
+            metrics.increment(TranslationEvent.TIMEOUT);
+            pooledDriver.setLanguagePair(null);
+            pool.release(pooledDriver);
+            throw e;
+        } catch (CancellationException e) {
+            pooledDriver.setLanguagePair(null);
+            pool.release(pooledDriver);
+            throw e;
+        } catch (RuntimeException e) {
+            discard(pooledDriver);
             throw e;
         }
 
         String result = null;
-        TimeoutException timeoutException = null;
-        By targetTextBy = By.id("target-dummydiv");
+        RuntimeException interruption = null;
 
         try {
             // Source text
-            driver.findElement(By.className("lmt__source_textarea")).sendKeys(text);
+            request.throwIfCancelled();
+            phaseStart = System.nanoTime();
+            pooledDriver.getElements().run(SOURCE_TEXTAREA_BY, source -> enterText(driver, source, text));
+            recordPhase(TranslationPhase.TYPING, phaseStart);
 
             // Target text
-            WebDriverWait waitText = new WebDriverWait(driver,
+            phaseStart = System.nanoTime();
+            result = awaitTranslation(driver, text, request, timeoutMillisEnd);
+            recordPhase(TranslationPhase.WAITING, phaseStart);
+        } catch (TimeoutException e) {
+            metrics.increment(TranslationEvent.TIMEOUT);
+            interruption = e;
+        } catch (CancellationException e) {
+            interruption = e;
+        } catch (RuntimeException e) {
+            discard(pooledDriver);
+            throw e;
+        }
+
+        // Clean up the input field on the DeepL site, it is validated when the browser is used next time
+        SharedRuntime.execute(() -> {
+            long cleanupStart = System.nanoTime();
+
+            try {
+                Object heapSize = ((JavascriptExecutor) driver).executeScript(RESET_PAGE_SCRIPT);
+                pooledDriver.setValidationPending(true);
+                pooledDriver.incrementUses();
+
+                if (heapSize instanceof Number) {
+                    pooledDriver.setHeapSize(((Number) heapSize).longValue());
+                }
+
+                recordPhase(TranslationPhase.CLEANUP, cleanupStart);
+                pool.release(pooledDriver);
+            } catch (RuntimeException e) {
+                discard(pooledDriver);
+            }
+        });
+
+        if (interruption != null)
+            throw interruption;
+
+        return result;
+    }
+
+    /**
+     * Post-processes the translation if it is enabled. The translation of a batch must be split before,
+     * because post-processing removes the blank lines between the texts.
+     *
+     * @see DeepLConfiguration#isPostProcessingEnabled()
+     */
+    String postProcess(String translation) {
+        if (translation == null || !configuration.isPostProcessingEnabled())
+            return translation;
+
+        return translation
+                .trim()
+                .replaceAll("\\s{2,}", " ");
+    }
+
+    /**
+     * Waits until the translation of the text is complete and returns it.
+     *
+     * @throws TimeoutException if the translation wasn't complete in time
+     * @throws CancellationException if the request was cancelled meanwhile
+     */
+    private String awaitTranslation(WebDriver driver, String text, TranslationRequest request,
+            long timeoutMillisEnd) throws TimeoutException, CancellationException {
+        boolean rejectPartial = !text.contains("[...]");
+
+        // The in-browser wait would block the other tabs of the browser instance
+        if (configuration.getCompletionDetection() == CompletionDetection.POLLING
+                || configuration.getTabsPerBrowser() > 1) {
+            WebDriverWait waitText = request.newWait(driver,
                     Duration.ofMillis(timeoutMillisEnd - System.currentTimeMillis()));
             waitText.pollingEvery(Duration.ofMillis(100));
-            ExpectedCondition<Boolean> textCondition;
-
-            if (text.contains("[...]")) {
-                textCondition = ExpectedConditions.and(
-                        DriverWaitUtils.attributeNotBlank(targetTextBy, "innerHTML"),
-                        DriverWaitUtils.attributeNotChanged(targetTextBy, "innerHTML", Duration.ofMillis(1000)));
-            } else {
-                textCondition = ExpectedConditions.and(
-                        DriverWaitUtils.attributeNotBlank(targetTextBy, "innerHTML"),
-                        DriverWaitUtils.attributeNotContains(targetTextBy, "innerHTML", "[...]"),
-                        DriverWaitUtils.attributeNotChanged(targetTextBy, "innerHTML", Duration.ofMillis(1000)));
-            }
+            return waitText.until(DriverWaitUtils.attributeSettled("target-dummydiv", rejectPartial,
+                    Duration.ofMillis(1000)));
+        }
 
-            waitText.until(textCondition);
-            result = driver.findElement(targetTextBy).getAttribute("innerHTML");
-        } catch (TimeoutException e) {
-            timeoutException = e;
+        // The browser can't be interrupted while it waits, so a cancellable request waits in slices,
+        // which share the state of the wait inside the page
+        String token = DriverWaitUtils.newSettleToken();
+
+        while (true) {
+            long remaining = timeoutMillisEnd - System.currentTimeMillis();
+            Duration slice = Duration.ofMillis(request.isCancellable()
+                    ? Math.min(remaining, TranslationRequest.CANCELLATION_CHECK_INTERVAL.toMillis())
+                    : remaining);
+
+            try {
+                return DriverWaitUtils.awaitAttributeSettled(driver, "target-dummydiv", rejectPartial,
+                        configuration.getCompletionQuietPeriod(), slice, token);
+            } catch (TimeoutException e) {
+                request.throwIfCancelled();
+
+                if (slice.toMillis() >= remaining) {
+                    throw e;
+                }
+            }
         }
+    }
 
-        WebDriver finalDriver = driver;
+    /**
+     * Selects the source and the target language on the DeepL site.
+     */
+    private void selectLanguages(long timeoutMillisEnd, PooledDriver pooledDriver, TranslationRequest request,
+            SourceLanguage from, TargetLanguage to) {
+        WebDriver driver = pooledDriver.getDriver();
+
+        // Source language button, the language buttons are only rendered while the menu is open
+        pooledDriver.getElements().run(LANGUAGE_SELECT_BY, 0, WebElement::click);
+        By srcButtonBy = By.xpath("//button[@dl-test='" + from.getAttributeValue() + "']");
+        WebDriverWait waitSource = request.newWait(driver,
+                Duration.ofMillis(timeoutMillisEnd - System.currentTimeMillis()));
+        waitSource.until(ExpectedConditions.visibilityOfElementLocated(srcButtonBy)).click();
 
-        CLEANUP_EXECUTOR.submit(() -> {
-            By buttonClearBy = By.className("lmt__clear_text_button_wrapper");
-            By sourceText = By.id("source-dummydiv");
-            finalDriver.findElement(buttonClearBy).click();
+        // Target language button
+        pooledDriver.getElements().run(LANGUAGE_SELECT_BY, 1, WebElement::click);
+        By targetButtonBy = By.xpath("//button[@dl-test='" + to.getAttributeValue() + "']");
+        WebDriverWait waitTarget = request.newWait(driver,
+                Duration.ofMillis(timeoutMillisEnd - System.currentTimeMillis()));
+        waitTarget.until(ExpectedConditions.visibilityOfElementLocated(targetButtonBy)).click();
+    }
 
-            WebDriverWait waitCleared = new WebDriverWait(finalDriver, Duration.ofSeconds(10));
+    /**
+     * Enters the source text as configured by {@link DeepLConfiguration#getTextInput()}.
+     */
+    private void enterText(WebDriver driver, WebElement source, String text) {
+        if (configuration.getTextInput() == TextInput.INSERT_TEXT) {
+            JavascriptExecutor executor = (JavascriptExecutor) driver;
 
             try {
-                waitCleared.until(ExpectedConditions.and(
-                        DriverWaitUtils.attributeBlank(sourceText, "innerHTML"),
-                        DriverWaitUtils.attributeBlank(targetTextBy, "innerHTML")));
-                AVAILABLE_INSTANCES.offer(finalDriver);
-            } catch (TimeoutException e) {
-                GLOBAL_INSTANCES.remove(finalDriver);
-                finalDriver.close();
+                if (driver instanceof HasCdp) {
+                    executor.executeScript("arguments[0].focus();", source);
+                    ((HasCdp) driver).executeCdpCommand("Input.insertText", Map.of("text", text));
+
+                    if (text.equals(executor.executeScript("return arguments[0].value;", source))) {
+                        return;
+                    }
+                } else if (Boolean.TRUE.equals(executor.executeScript(INSERT_TEXT_SCRIPT, source, text))) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // Type the text instead
             }
+
+            source.clear();
+        }
+
+        source.sendKeys(text);
+    }
+
+    /**
+     * Takes a browser instance from the pool and checks that its session is still alive. Crashed browser
+     * instances are discarded and the next one is taken.
+     * <p>
+     * </p>
+     * If the page still has to be validated, the validation script serves as the probe,
+     * so that a healthy browser instance costs a single round trip.
+     */
+    private PooledDriver acquireLiveDriver(LanguagePair languagePair, TranslationRequest request,
+            long timeoutMillisEnd) throws TimeoutException {
+        while (true) {
+            PooledDriver pooledDriver = pool.acquire(languagePair, request, timeoutMillisEnd);
+            JavascriptExecutor driver = (JavascriptExecutor) pooledDriver.getDriver();
+
+            try {
+                if (!pooledDriver.isValidationPending()) {
+                    driver.executeScript("return true;");
+                } else if (Boolean.TRUE.equals(driver.executeScript(IS_PAGE_RESET_SCRIPT))) {
+                    pooledDriver.setValidationPending(false);
+                }
+
+                return pooledDriver;
+            } catch (RuntimeException e) {
+                discard(pooledDriver);
+            }
+        }
+    }
+
+    /**
+     * Decides whether a browser instance is replaced when it is released or taken from the pool,
+     * because it did too many translations, is too old or uses too much memory.
+     */
+    private boolean shouldRetire(PooledDriver pooledDriver) {
+        int maxUses = configuration.getMaxDriverUses();
+        long maxAgeMillis = configuration.getMaxDriverAge().toMillis();
+        long maxHeapSize = configuration.getMaxDriverHeapSize();
+
+        boolean retire = (maxUses > 0 && pooledDriver.getUses() >= maxUses)
+                || (maxAgeMillis > 0 && System.currentTimeMillis() - pooledDriver.getCreatedAt() >= maxAgeMillis)
+                || (maxHeapSize > 0 && pooledDriver.getHeapSize() >= maxHeapSize);
+
+        if (retire) {
+            configuration.getMetrics().increment(TranslationEvent.DRIVER_RECYCLED);
+        }
+
+        return retire;
+    }
+
+    /**
+     * Makes sure that the page was reset after the previous translation, if the probe at checkout couldn't
+     * confirm it. The clear button is clicked, and if that doesn't help either, the page is reloaded.
+     */
+    private void validatePage(long timeoutMillisEnd, PooledDriver pooledDriver, TranslationRequest request) {
+        WebDriver driver = pooledDriver.getDriver();
+
+        try {
+            pooledDriver.getElements().run(CLEAR_BUTTON_BY, WebElement::click);
+
+            long remaining = timeoutMillisEnd - System.currentTimeMillis();
+            WebDriverWait waitCleared = request.newWait(driver, Duration.ofMillis(Math.min(10_000, remaining)));
+            waitCleared.until(ExpectedConditions.and(
+                    DriverWaitUtils.attributeBlank(By.id("source-dummydiv"), "innerHTML"),
+                    DriverWaitUtils.attributeBlank(By.id("target-dummydiv"), "innerHTML")));
+        } catch (CancellationException e) {
+            // Not a sign of a broken page, it is validated again when the browser is used next time
+            throw e;
+        } catch (RuntimeException e) {
+            pooledDriver.setLanguagePair(null);
+            pooledDriver.getElements().clear();
+            loadPage(driver);
+        }
+
+        pooledDriver.setValidationPending(false);
+    }
+
+    private void recordPhase(TranslationPhase phase, long startNanos) {
+        configuration.getMetrics().recordPhase(phase, Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Quits a broken browser instance.
+     */
+    private void discard(PooledDriver pooledDriver) {
+        configuration.getMetrics().increment(TranslationEvent.DRIVER_DISCARDED);
+        pool.discard(pooledDriver);
+    }
+
+    /**
+     * Starts a new browser instance which is used for one translation at a time.
+     */
+    private PooledDriver newPooledDriver() {
+        WebDriver driver = newDriver();
+        GLOBAL_INSTANCES.add(driver);
+
+        return new PooledDriver(driver, () -> {
+            GLOBAL_INSTANCES.remove(driver);
+            driver.quit();
         });
+    }
 
-        if (timeoutException != null)
-            throw timeoutException;
+    /**
+     * Starts a new browser instance, loads the DeepL site and disables its animations.
+     */
+    private WebDriver newDriver() {
+        startPermits.acquireUninterruptibly();
 
-        // Post-processing
-        if (result != null && configuration.isPostProcessingEnabled()) {
-            result = result
-                    .trim()
-                    .replaceAll("\\s{2,}", " ");
+        try {
+            long start = System.nanoTime();
+            Path profileTemplate = configuration.getProfileTemplateDirectory();
+
+            if (profileTemplate != null && configuration.getRemoteWebDriverUrl() == null) {
+                ProfileTemplate.seed(profileTemplate, () -> {
+                    WebDriver seeder = webDriverBuilder().userDataDirectory(profileTemplate).build();
+
+                    try {
+                        loadPage(seeder);
+                    } finally {
+                        seeder.quit();
+                    }
+                });
+            }
+
+            long launchStart = System.nanoTime();
+            WebDriver driver = webDriverBuilder().profileTemplate(profileTemplate).build();
+            recordPhase(TranslationPhase.BROWSER_LAUNCH, launchStart);
+
+            try {
+                loadPage(driver);
+            } catch (RuntimeException e) {
+                driver.quit();
+                throw e;
+            }
+
+            recordPhase(TranslationPhase.COLD_START, start);
+            configuration.getMetrics().increment(TranslationEvent.DRIVER_STARTED);
+            return driver;
+        } finally {
+            startPermits.release();
         }
+    }
 
-        return result;
+    private WebDriverBuilder webDriverBuilder() {
+        return WebDriverBuilder.builder()
+                .headless(HEADLESS)
+                .remoteWebDriverUrl(configuration.getRemoteWebDriverUrl())
+                .userAgent(configuration.getUserAgent())
+                .timeout(configuration.getTimeout())
+                .leanProfile(configuration.isLeanProfileEnabled(), configuration.getBlockedUrls());
     }
 
-    private void closeCromeExtensionInstallDialog(long timeoutMillisEnd, WebDriver driver) {
+    /**
+     * Loads the DeepL site and disables its animations.
+     */
+    private void loadPage(WebDriver driver) {
+        long start = System.nanoTime();
+        driver.get(configuration.getWebsiteUrl());
+        ((JavascriptExecutor) driver).executeScript(DISABLE_ANIMATIONS_SCRIPT);
+        recordPhase(TranslationPhase.PAGE_LOAD, start);
+    }
+
+    /**
+     * Loads the DeepL site in a tab opened in an already running browser instance,
+     * which doesn't have the settings of the tab the browser was started with yet.
+     */
+    private void loadPageInNewTab(WebDriver driver) {
+        webDriverBuilder().prepareTab(driver);
+        loadPage(driver);
+    }
+
+    private void closeCromeExtensionInstallDialog(long timeoutMillisEnd, WebDriver driver,
+            TranslationRequest request) {
         // close Chrome extension install dialog
         By node = By.xpath("//*[name()='button'][@aria-label='Close']");
-        WebDriverWait waitNode = new WebDriverWait(driver,
+        WebDriverWait waitNode = request.newWait(driver,
                 Duration.ofMillis(timeoutMillisEnd - System.currentTimeMillis()));
         try {
-            waitNode.until(ExpectedConditions.visibilityOfElementLocated(node));
-            driver.findElement(node).click();
+            waitNode.until(ExpectedConditions.visibilityOfElementLocated(node)).click();
         } catch (Exception e) {
             // TODO: handle exception
         }
     }
 
+    /**
+     * Shows how often the language selection could be skipped, per language pair.
+     */
+    public List<LanguagePairStatistics> getLanguagePairStatistics() {
+        return pool.getLanguagePairStatistics();
+    }
+
+    /**
+     * Hit and miss statistics of the translation cache. Empty if caching is disabled.
+     */
+    public CacheStats getCacheStatistics() {
+        return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.getStatistics();
+    }
+
+    /**
+     * Number of asynchronous translations which were not run on their own,
+     * because an identical translation was already running.
+     */
+    public long getDeduplicatedRequestCount() {
+        return inFlight.getDeduplicatedCount();
+    }
+
     /**
      * The settings.
      */
@@ -267,11 +778,41 @@ class DeepLTranslatorBase {
      * This method does not wait for the running tasks to finish.
      */
     public static void shutdown() {
+        TRANSLATOR_LIST.forEach(DeepLTranslatorBase::close);
         GLOBAL_INSTANCES.forEach(WebDriver::quit);
         EXECUTOR_LIST.forEach(ExecutorService::shutdownNow);
-        CLEANUP_EXECUTOR.shutdownNow();
-        AVAILABLE_INSTANCES.clear();
+        SharedRuntime.shutdownNow();
+        TRANSLATOR_LIST.clear();
         GLOBAL_INSTANCES.clear();
         EXECUTOR_LIST.clear();
     }
+
+    /**
+     * Quits the browsers of this translator, empties its translation cache, closes its persistent store
+     * and removes its gauges from the metrics, so that a shared {@link TranslationMetrics} no longer reports it.
+     * Translations still waiting for a browser fail, running ones are completed.
+     * <p></p>
+     * Use {@link DeepLTranslator#awaitTermination(long, java.util.concurrent.TimeUnit)} before to let async translations finish.
+     */
+    public void close() {
+        if (!TRANSLATOR_LIST.remove(this)) {
+            return;
+        }
+
+        pool.close();
+
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+
+        if (store != null) {
+            store.close();
+        }
+
+        gauges.forEach(gauge -> configuration.getMetrics().unregisterGauge(gauge.name(), gauge.value()));
+        gauges.clear();
+    }
+
+    private record GaugeRegistration(String name, Supplier<? extends Number> value) {
+    }
 }
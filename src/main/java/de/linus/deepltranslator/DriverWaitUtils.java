@@ -1,13 +1,98 @@
 package de.linus.deepltranslator;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DriverWaitUtils {
 
+    /**
+     * Asynchronous script which resolves with the innerHTML of the element with the given id
+     * as soon as it is not blank, optionally does not contain "[...]", DeepL is not busy anymore
+     * and the element has not changed for the given quiet period.
+     * <p>
+     * The observer and the time of the last change are kept on the window, so that a wait which is continued
+     * with the same token doesn't start the quiet period anew. A different token stops the previous observer.
+     * <p>
+     * Arguments: element id, whether "[...]" is rejected, quiet period in milliseconds, token.
+     */
+    private static final String AWAIT_SETTLED_SCRIPT = "var callback = arguments[arguments.length - 1];" +
+            "var quietMillis = arguments[2];" +
+            "var state = window.__settleState;" +
+            "if (!state || state.token !== arguments[3] || state.stopped) {" +
+            "  if (state) { state.stop(); }" +
+            "  var target = document.getElementById(arguments[0]);" +
+            "  var rejectPartial = arguments[1];" +
+            "  var container = document.querySelector('.lmt') || document.body;" +
+            "  state = window.__settleState = {token: arguments[3], since: Date.now(), timer: null, stopped: false};" +
+            "  state.ready = function() {" +
+            "    var value = target.innerHTML;" +
+            "    return value.trim().length > 0" +
+            "        && !(rejectPartial && value.indexOf('[...]') >= 0)" +
+            "        && container.className.indexOf('lmt--active_translation_request') < 0;" +
+            "  };" +
+            "  state.schedule = function() {" +
+            "    clearTimeout(state.timer);" +
+            "    if (state.ready()) {" +
+            "      state.timer = setTimeout(state.done, Math.max(0, quietMillis - (Date.now() - state.since)));" +
+            "    }" +
+            "  };" +
+            "  state.done = function() {" +
+            "    if (!state.ready()) { return; }" +
+            "    state.stop();" +
+            "    state.callback(target.innerHTML);" +
+            "  };" +
+            "  var observer = new MutationObserver(function() {" +
+            "    state.since = Date.now();" +
+            "    state.schedule();" +
+            "  });" +
+            "  state.stop = function() { state.stopped = true; observer.disconnect(); clearTimeout(state.timer); };" +
+            "  observer.observe(target, {childList: true, subtree: true, characterData: true});" +
+            "  observer.observe(container, {attributes: true, attributeFilter: ['class']});" +
+            "}" +
+            "state.callback = callback;" +
+            "state.schedule();";
+
+    /**
+     * Script which evaluates all completion conditions of the element with the given id inside the browser
+     * and returns them as one status object. The time since the last change is kept on the element,
+     * and starts anew whenever a different token is passed.
+     * <p>
+     * Arguments: element id, whether "[...]" is rejected, minimum milliseconds without change, token.
+     */
+    private static final String POLL_SETTLED_SCRIPT = "var element = document.getElementById(arguments[0]);" +
+            "if (element === null) { return {found: false, ready: false}; }" +
+            "var value = element.innerHTML;" +
+            "var now = Date.now();" +
+            "var state = element.__settleState;" +
+            "if (!state || state.token !== arguments[3] || state.value !== value) {" +
+            "  state = element.__settleState = {token: arguments[3], value: value, since: now, first: !state || state.token !== arguments[3]};" +
+            "} else {" +
+            "  state.first = false;" +
+            "}" +
+            "var blank = value.trim().length === 0;" +
+            "var partial = value.indexOf('[...]') >= 0;" +
+            "var stableMillis = now - state.since;" +
+            "var ready = !blank && !(arguments[1] && partial) && !state.first && stableMillis >= arguments[2];" +
+            "return {found: true, blank: blank, partial: partial, stableMillis: stableMillis, ready: ready," +
+            "    value: ready ? value : null};";
+
+    private static final AtomicLong SETTLE_TOKENS = new AtomicLong();
+
+    /**
+     * A token which identifies one wait for a value to settle, even if it is continued several times.
+     */
+    static String newSettleToken() {
+        return Long.toString(SETTLE_TOKENS.incrementAndGet());
+    }
+
     /**
      * Wait until the attribute's value is blank.
      */
@@ -95,4 +180,72 @@ public class DriverWaitUtils {
         };
     }
 
+    /**
+     * Wait until the innerHTML of the element with the given id is not blank, optionally does not contain "[...]"
+     * and has not changed for a specific minimum duration, and return it.
+     * <p>
+     * </p>
+     * Combines {@link #attributeNotBlank}, {@link #attributeNotContains} and {@link #attributeNotChanged}
+     * but evaluates them with a single script per poll instead of several WebDriver commands.
+     *
+     * @param rejectPartial whether to wait until the value does not contain "[...]"
+     */
+    static ExpectedCondition<String> attributeSettled(String elementId, boolean rejectPartial,
+            Duration minDurationNotChanged) {
+        String token = newSettleToken();
+
+        return new ExpectedCondition<String>() {
+            private Map<?, ?> lastStatus;
+
+            @Override
+            public String apply(WebDriver driver) {
+                lastStatus = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(POLL_SETTLED_SCRIPT,
+                        elementId, rejectPartial, minDurationNotChanged.toMillis(), token);
+                return Boolean.TRUE.equals(lastStatus.get("ready")) ? (String) lastStatus.get("value") : null;
+            }
+
+            @Override
+            public String toString() {
+                return String.format("value of #%s to be settled for %d milliseconds (last status: %s).",
+                        elementId, minDurationNotChanged.toMillis(), lastStatus);
+            }
+        };
+    }
+
+    /**
+     * Waits inside the browser until the innerHTML of the element with the given id has settled
+     * and returns it. In contrast to polling conditions, no WebDriver command is sent while waiting.
+     *
+     * @param rejectPartial whether to wait until the value does not contain "[...]"
+     * @param quietPeriod the minimum duration the value must not have changed
+     * @throws TimeoutException if the value didn't settle within the timeout
+     */
+    static String awaitAttributeSettled(WebDriver driver, String elementId, boolean rejectPartial,
+            Duration quietPeriod, Duration timeout) throws TimeoutException {
+        return awaitAttributeSettled(driver, elementId, rejectPartial, quietPeriod, timeout, newSettleToken());
+    }
+
+    /**
+     * Like {@link DriverWaitUtils#awaitAttributeSettled(WebDriver, String, boolean, Duration, Duration)},
+     * but continues a previous wait with the same token which timed out, e.g. to check for cancellation
+     * in between. The time the value has not changed already counts towards the quiet period.
+     */
+    static String awaitAttributeSettled(WebDriver driver, String elementId, boolean rejectPartial,
+            Duration quietPeriod, Duration timeout, String token) throws TimeoutException {
+        // The script timeout also applies to the synchronous scripts sent later on, so it is restored afterwards
+        WebDriver.Timeouts timeouts = driver.manage().timeouts();
+        Duration previousTimeout = timeouts.getScriptTimeout();
+        timeouts.scriptTimeout(timeout.isNegative() ? Duration.ZERO : timeout);
+
+        try {
+            return (String) ((JavascriptExecutor) driver).executeAsyncScript(AWAIT_SETTLED_SCRIPT,
+                    elementId, rejectPartial, quietPeriod.toMillis(), token);
+        } catch (ScriptTimeoutException e) {
+            throw new TimeoutException(String.format("Timed out after %d milliseconds waiting for value of #%s to settle.",
+                    timeout.toMillis(), elementId), e);
+        } finally {
+            timeouts.scriptTimeout(previousTimeout);
+        }
+    }
+
 }
@@ -0,0 +1,92 @@
+package de.linus.deepltranslator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Elements of the DeepL site which were already looked up in one browser instance.
+ * <p>
+ * </p>
+ * The DeepL site is a single page, so its elements usually survive many translations. If an element was
+ * replaced nevertheless, it is looked up again and the action is repeated once.
+ */
+class ElementCache {
+
+    private final WebDriver driver;
+    private final Map<By, List<WebElement>> elements = new ConcurrentHashMap<>();
+
+    ElementCache(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * @see ElementCache#apply(By, int, Function)
+     */
+    <T> T apply(By locator, Function<WebElement, T> action) {
+        return apply(locator, 0, action);
+    }
+
+    /**
+     * @see ElementCache#apply(By, int, Function)
+     */
+    void run(By locator, Consumer<WebElement> action) {
+        run(locator, 0, action);
+    }
+
+    /**
+     * @see ElementCache#apply(By, int, Function)
+     */
+    void run(By locator, int index, Consumer<WebElement> action) {
+        apply(locator, index, element -> {
+            action.accept(element);
+            return null;
+        });
+    }
+
+    /**
+     * Applies the action to the element found by the locator, looking it up only if it isn't cached yet.
+     *
+     * @param index the position of the element if the locator matches several elements
+     * @throws NoSuchElementException if there is no such element
+     */
+    <T> T apply(By locator, int index, Function<WebElement, T> action) throws NoSuchElementException {
+        try {
+            return action.apply(get(locator, index));
+        } catch (StaleElementReferenceException e) {
+            elements.remove(locator);
+            return action.apply(get(locator, index));
+        }
+    }
+
+    /**
+     * Forgets all elements, e.g. after the page was reloaded.
+     */
+    void clear() {
+        elements.clear();
+    }
+
+    private WebElement get(By locator, int index) {
+        List<WebElement> found = elements.get(locator);
+
+        if (found == null || found.size() <= index) {
+            found = driver.findElements(locator);
+
+            if (found.size() <= index) {
+                throw new NoSuchElementException(String.format("Cannot locate element %d of %s", index, locator));
+            }
+
+            elements.put(locator, found);
+        }
+
+        return found.get(index);
+    }
+}
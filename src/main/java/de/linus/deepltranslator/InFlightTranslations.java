@@ -0,0 +1,137 @@
+package de.linus.deepltranslator;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Translations currently running, so that identical concurrent requests share one translation.
+ */
+class InFlightTranslations {
+
+    private final Map<Key, Entry> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Number of requests which attached to an already running translation.
+     */
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * Attaches to the running translation of the same text and language pair,
+     * or starts a new one with the given supplier.
+     * <p>
+     * </p>
+     * Every caller gets its own future, so cancelling it doesn't affect other callers.
+     * The translation is removed as soon as it completes, successfully or not.
+     */
+    CompletableFuture<String> join(String text, SourceLanguage from, TargetLanguage to,
+            Supplier<CompletableFuture<String>> translation) {
+        return join(text, from, to, translation, () -> {
+        });
+    }
+
+    /**
+     * Like {@link InFlightTranslations#join(String, SourceLanguage, TargetLanguage, Supplier)}, but once every
+     * caller cancelled its future, the translation is removed and stopped with the given action.
+     */
+    CompletableFuture<String> join(String text, SourceLanguage from, TargetLanguage to,
+            Supplier<CompletableFuture<String>> translation, Runnable cancel) {
+        Key key = new Key(text, from, to);
+        Entry created = new Entry(cancel);
+        Entry entry = inFlight.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return created;
+            }
+
+            existing.callers++;
+            return existing;
+        });
+
+        if (entry != created) {
+            deduplicated.increment();
+            return attach(key, entry);
+        }
+
+        try {
+            translation.get().whenComplete((result, ex) -> {
+                inFlight.remove(key, entry);
+
+                if (ex != null) {
+                    entry.promise.completeExceptionally(ex);
+                } else {
+                    entry.promise.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, entry);
+            entry.promise.completeExceptionally(e);
+        }
+
+        return attach(key, entry);
+    }
+
+    /**
+     * A future of the caller which leaves the translation if it is completed before the translation.
+     */
+    private CompletableFuture<String> attach(Key key, Entry entry) {
+        CompletableFuture<String> copy = entry.promise.copy();
+        copy.whenComplete((result, ex) -> {
+            if (!entry.promise.isDone()) {
+                leave(key, entry);
+            }
+        });
+        return copy;
+    }
+
+    /**
+     * Stops the translation after the last caller left.
+     */
+    private void leave(Key key, Entry entry) {
+        boolean[] abandoned = new boolean[1];
+        inFlight.computeIfPresent(key, (k, existing) -> {
+            if (existing != entry || --existing.callers > 0) {
+                return existing;
+            }
+
+            abandoned[0] = true;
+            return null;
+        });
+
+        if (abandoned[0]) {
+            entry.cancel.run();
+        }
+    }
+
+    /**
+     * Number of requests which attached to an already running translation.
+     */
+    long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * Number of translations currently running.
+     */
+    int size() {
+        return inFlight.size();
+    }
+
+    private record Key(String text, SourceLanguage from, TargetLanguage to) {
+    }
+
+    /**
+     * A running translation and the number of callers still waiting for it, guarded by the map.
+     */
+    private static class Entry {
+
+        private final CompletableFuture<String> promise = new CompletableFuture<>();
+        private final Runnable cancel;
+        private int callers = 1;
+
+        private Entry(Runnable cancel) {
+            this.cancel = cancel;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package de.linus.deepltranslator;
+
+/**
+ * A combination of source and target language a browser instance is set to.
+ */
+record LanguagePair(SourceLanguage from, TargetLanguage to) {
+
+    @Override
+    public String toString() {
+        return from.getLanguageCode() + "->" + to.getLanguageCode();
+    }
+}
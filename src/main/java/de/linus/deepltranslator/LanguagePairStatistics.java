@@ -0,0 +1,55 @@
+package de.linus.deepltranslator;
+
+/**
+ * How often a request for a language pair was served by a browser instance
+ * which was already set to this language pair.
+ */
+public class LanguagePairStatistics {
+
+    private final SourceLanguage from;
+    private final TargetLanguage to;
+    private final long hits;
+    private final long misses;
+
+    LanguagePairStatistics(SourceLanguage from, TargetLanguage to, long hits, long misses) {
+        this.from = from;
+        this.to = to;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    public SourceLanguage getSourceLanguage() {
+        return from;
+    }
+
+    public TargetLanguage getTargetLanguage() {
+        return to;
+    }
+
+    /**
+     * Number of requests which could skip the language selection.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Number of requests which had to select the languages.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Ratio of hits to all requests, or 0 if there were no requests.
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s->%s: %d hits, %d misses", from.getLanguageCode(), to.getLanguageCode(), hits, misses);
+    }
+}
@@ -0,0 +1,231 @@
+package de.linus.deepltranslator;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Built-in {@link TranslationMetrics}, keeping a latency histogram per phase and a counter per event
+ * in memory, which can be exported in the Prometheus text format.
+ */
+public class MetricsRegistry implements TranslationMetrics {
+
+    /**
+     * Upper bounds of the histogram buckets in milliseconds.
+     */
+    private static final long[] BUCKETS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000 };
+
+    private final String prefix;
+    private final Map<TranslationPhase, Histogram> histograms = new EnumMap<>(TranslationPhase.class);
+    private final Map<TranslationEvent, LongAdder> counters = new EnumMap<>(TranslationEvent.class);
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * With "deepl" as prefix of all metric names.
+     */
+    public MetricsRegistry() {
+        this("deepl");
+    }
+
+    public MetricsRegistry(String prefix) {
+        this.prefix = prefix;
+
+        for (TranslationPhase phase : TranslationPhase.values()) {
+            histograms.put(phase, new Histogram());
+        }
+
+        for (TranslationEvent event : TranslationEvent.values()) {
+            counters.put(event, new LongAdder());
+        }
+    }
+
+    @Override
+    public void recordPhase(TranslationPhase phase, Duration duration) {
+        histograms.get(phase).record(duration.toNanos());
+    }
+
+    @Override
+    public void increment(TranslationEvent event) {
+        counters.get(event).increment();
+    }
+
+    @Override
+    public void registerGauge(String name, String help, Supplier<? extends Number> value) {
+        gauges.compute(name, (key, gauge) -> {
+            Gauge registered = gauge != null ? gauge : new Gauge(help);
+            registered.values.add(value);
+            return registered;
+        });
+    }
+
+    @Override
+    public void unregisterGauge(String name, Supplier<? extends Number> value) {
+        gauges.computeIfPresent(name, (key, gauge) -> {
+            gauge.values.remove(value);
+            return gauge.values.isEmpty() ? null : gauge;
+        });
+    }
+
+    /**
+     * Number of recorded durations of the phase.
+     */
+    public long getCount(TranslationPhase phase) {
+        return histograms.get(phase).count.sum();
+    }
+
+    /**
+     * Mean of the recorded durations of the phase, or zero if there are none.
+     */
+    public Duration getMean(TranslationPhase phase) {
+        Histogram histogram = histograms.get(phase);
+        long count = histogram.count.sum();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(histogram.sumNanos.sum() / count);
+    }
+
+    /**
+     * Estimates the given percentile (0 to 100) of the recorded durations of the phase
+     * by the upper bound of the histogram bucket it falls into.
+     */
+    public Duration getPercentile(TranslationPhase phase, double percentile) {
+        Histogram histogram = histograms.get(phase);
+        long count = histogram.count.sum();
+
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        long cumulative = 0;
+
+        for (int i = 0; i < BUCKETS.length; i++) {
+            cumulative += histogram.buckets[i].sum();
+
+            if (cumulative >= rank) {
+                return Duration.ofMillis(BUCKETS[i]);
+            }
+        }
+
+        return Duration.ofNanos(histogram.maxNanos.get());
+    }
+
+    /**
+     * Number of times the event occurred.
+     */
+    public long getCount(TranslationEvent event) {
+        return counters.get(event).sum();
+    }
+
+    /**
+     * Current value of a gauge, summed up over all translators which registered it.
+     */
+    public double getGauge(String name) {
+        Gauge gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    /**
+     * Exports all metrics in the Prometheus text format.
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        String histogramName = prefix + "_phase_duration_seconds";
+
+        text.append("# HELP ").append(histogramName).append(" Duration of the translation phases.\n");
+        text.append("# TYPE ").append(histogramName).append(" histogram\n");
+
+        for (TranslationPhase phase : TranslationPhase.values()) {
+            Histogram histogram = histograms.get(phase);
+            String label = "phase=\"" + phase.getMetricName() + "\"";
+            long cumulative = 0;
+
+            for (int i = 0; i < BUCKETS.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                text.append(histogramName).append("_bucket{").append(label).append(",le=\"")
+                        .append(seconds(BUCKETS[i] * 1_000_000)).append("\"} ").append(cumulative).append('\n');
+            }
+
+            long count = histogram.count.sum();
+            text.append(histogramName).append("_bucket{").append(label).append(",le=\"+Inf\"} ").append(count).append('\n');
+            text.append(histogramName).append("_sum{").append(label).append("} ")
+                    .append(seconds(histogram.sumNanos.sum())).append('\n');
+            text.append(histogramName).append("_count{").append(label).append("} ").append(count).append('\n');
+        }
+
+        for (TranslationEvent event : TranslationEvent.values()) {
+            String name = prefix + "_" + event.getMetricName() + "_total";
+            text.append("# TYPE ").append(name).append(" counter\n");
+            text.append(name).append(' ').append(counters.get(event).sum()).append('\n');
+        }
+
+        gauges.forEach((gaugeName, gauge) -> {
+            String name = prefix + "_" + gaugeName;
+            text.append("# HELP ").append(name).append(' ').append(gauge.help).append('\n');
+            text.append("# TYPE ").append(name).append(" gauge\n");
+            text.append(name).append(' ').append(format(gauge.value())).append('\n');
+        });
+
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toPrometheusText();
+    }
+
+    private static String seconds(long nanos) {
+        return format(nanos / 1e9);
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value)
+                ? Long.toString((long) value)
+                : String.format(Locale.ROOT, "%.6f", value);
+    }
+
+    private static class Histogram {
+        private final LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos) {
+            int bucket = 0;
+
+            // A duration equal to an upper bound belongs to that bucket, like "le" in Prometheus
+            while (bucket < BUCKETS.length && nanos > BUCKETS[bucket] * 1_000_000) {
+                bucket++;
+            }
+
+            buckets[bucket].increment();
+            count.increment();
+            sumNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+    }
+
+    private static class Gauge {
+        private final String help;
+        private final List<Supplier<? extends Number>> values = new CopyOnWriteArrayList<>();
+
+        private Gauge(String help) {
+            this.help = help;
+        }
+
+        private double value() {
+            return values.stream().mapToDouble(value -> value.get().doubleValue()).sum();
+        }
+    }
+}
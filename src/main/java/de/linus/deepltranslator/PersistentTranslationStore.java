@@ -0,0 +1,882 @@
+package de.linus.deepltranslator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Translations persisted on disk, surviving restarts.
+ * <p>
+ * </p>
+ * The translations are appended to a log file, each record protected by a checksum.
+ * A hash index file maps the hash of a key to the offset of its latest record.
+ * Both files are memory-mapped, so neither the index nor the translations are copied into the heap,
+ * and on startup only the records appended after the index was last updated are replayed.
+ * <p>
+ * </p>
+ * Log header: magic (int), version (int), generation (long).
+ * <p>
+ * Log record: crc (int), key length (int), value length (int), key bytes, value bytes.
+ * <p>
+ * Index header: magic (int), version (int), capacity (int), count (int),
+ * length of the log covered by the index (long), generation of the log (long).
+ * <p>
+ * Index slot: hash (long), offset + 1 (long), an offset of 0 marks an empty slot.
+ * <p>
+ * </p>
+ * Every compaction writes a log of a new generation. An index of another generation than the log is rebuilt.
+ *
+ * @see DeepLConfiguration#getPersistentStoreDirectory()
+ */
+class PersistentTranslationStore implements Closeable {
+
+    private static final int LOG_MAGIC = 0x444C544C;
+    private static final int INDEX_MAGIC = 0x444C5449;
+    private static final int VERSION = 1;
+
+    private static final int LOG_HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 12;
+    private static final int INDEX_HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    /**
+     * Positions in the log are int offsets of its mapping, so it can't grow beyond this.
+     */
+    private static final long MAX_LOG_LENGTH = Integer.MAX_VALUE;
+
+    /**
+     * The log is mapped again at the earliest when this many bytes were appended since it was last mapped.
+     */
+    private static final long MIN_REMAP_LENGTH = 1 << 20;
+
+    static final String LOG_FILE = "translations.log";
+    static final String INDEX_FILE = "translations.idx";
+    private static final String LOCK_FILE = "translations.lock";
+    private static final String COMPACTION_SUFFIX = ".compact";
+    private static final String RESIZE_SUFFIX = ".resize";
+
+    private final Path directory;
+    private final long maximumSize;
+    private final boolean normalize;
+    private final TranslationMetrics metrics;
+
+    /**
+     * Lookups share the read lock, modifications of the files take the write lock.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Serializes compactions with each other and with closing the store.
+     */
+    private final ReentrantLock compactionLock = new ReentrantLock();
+
+    private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("deepl-store-compaction-%d").setDaemon(true).build());
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+    private final FileChannel lockChannel;
+    private final FileLock fileLock;
+
+    private FileChannel logChannel;
+    private long logLength;
+    private long generation;
+
+    /**
+     * Read-only view of the log, remapped lazily when records beyond its end are read.
+     */
+    private volatile MappedByteBuffer logBuffer;
+
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int count;
+
+    /**
+     * Bytes of records which were overwritten by newer records of the same key since startup.
+     */
+    private long deadBytes;
+
+    private boolean closed;
+
+    /**
+     * Set after a compaction failed. New translations are dropped from then on, so the log can't grow
+     * past the maximum size, while the stored translations can still be looked up.
+     */
+    private boolean readOnly;
+
+    PersistentTranslationStore(DeepLConfiguration configuration) {
+        this(configuration.getPersistentStoreDirectory(), configuration.getPersistentStoreMaximumSize(),
+                configuration.isPostProcessingEnabled(), configuration.getMetrics());
+    }
+
+    PersistentTranslationStore(Path directory, long maximumSize, boolean normalize) {
+        this(directory, maximumSize, normalize, TranslationMetrics.NONE);
+    }
+
+    PersistentTranslationStore(Path directory, long maximumSize, boolean normalize, TranslationMetrics metrics) {
+        this.directory = directory;
+        this.maximumSize = maximumSize;
+        this.normalize = normalize;
+        this.metrics = metrics;
+
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            fileLock = tryLock(lockChannel);
+
+            // Leftovers of an interrupted compaction or index resize
+            Files.deleteIfExists(directory.resolve(LOG_FILE + COMPACTION_SUFFIX));
+            Files.deleteIfExists(directory.resolve(INDEX_FILE + COMPACTION_SUFFIX));
+            Files.deleteIfExists(directory.resolve(INDEX_FILE + RESIZE_SUFFIX));
+
+            openLog();
+            openIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't open translation store in " + directory, e);
+        }
+    }
+
+    private FileLock tryLock(FileChannel channel) throws IOException {
+        FileLock lock;
+
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Translation store in " + directory + " is already in use");
+        }
+
+        return lock;
+    }
+
+    /**
+     * Returns the stored translation or null if there is none.
+     */
+    String get(String text, SourceLanguage from, TargetLanguage to) {
+        byte[] key = key(text, from, to);
+        long hash = hash(key);
+
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                return null;
+            }
+
+            long offset = find(key, hash);
+
+            if (offset < 0) {
+                return null;
+            }
+
+            byte[] value = readValue(offset);
+            return value == null ? null : new String(value, StandardCharsets.UTF_8);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the translation to the log and syncs it to disk before the index is updated.
+     */
+    void put(String text, SourceLanguage from, TargetLanguage to, String translation) {
+        if (translation == null) {
+            return;
+        }
+
+        byte[] key = key(text, from, to);
+        byte[] value = translation.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(key);
+
+        lock.writeLock().lock();
+        try {
+            if (closed || readOnly) {
+                return;
+            }
+
+            long offset = logLength;
+            ByteBuffer record = record(key, value);
+
+            // Only if compaction falls far behind, the translation is dropped until it made room
+            if (logLength + record.limit() > MAX_LOG_LENGTH) {
+                return;
+            }
+
+            write(logChannel, record, logLength);
+            logChannel.force(false);
+            logLength += record.limit();
+
+            insert(key, hash, offset);
+            index.putLong(16, logLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't write to translation store in " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (needsCompaction() && compactionScheduled.compareAndSet(false, true)) {
+            compactionExecutor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    compactionFailed();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops accepting new translations and reports the failure.
+     */
+    private void compactionFailed() {
+        lock.writeLock().lock();
+        try {
+            readOnly = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        metrics.increment(TranslationEvent.STORE_COMPACTION_FAILED);
+    }
+
+    /**
+     * Whether new translations are dropped, because a compaction failed.
+     */
+    boolean isReadOnly() {
+        lock.readLock().lock();
+        try {
+            return readOnly;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of stored translations.
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Size of the log in bytes.
+     */
+    long getLogLength() {
+        lock.readLock().lock();
+        try {
+            return logLength;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        compactionExecutor.shutdown();
+
+        compactionLock.lock();
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            index.force();
+            indexChannel.close();
+            logChannel.close();
+            fileLock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't close translation store in " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+            compactionLock.unlock();
+        }
+    }
+
+    private void openLog() throws IOException {
+        logChannel = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (logChannel.size() < LOG_HEADER_SIZE) {
+            generation = 1;
+            logChannel.truncate(0);
+            logChannel.write(logHeader(generation), 0);
+            logChannel.force(true);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+            logChannel.read(header, 0);
+
+            if (header.getInt(0) != LOG_MAGIC || header.getInt(4) != VERSION) {
+                throw new IllegalStateException(directory.resolve(LOG_FILE) + " is not a translation log");
+            }
+
+            generation = header.getLong(8);
+        }
+
+        logLength = logChannel.size();
+        logBuffer = logChannel.map(FileChannel.MapMode.READ_ONLY, 0, logLength);
+    }
+
+    /**
+     * Maps the index and replays the records it doesn't cover yet.
+     * If the index is missing or broken, it is rebuilt from the whole log.
+     */
+    private void openIndex() throws IOException {
+        Path indexFile = directory.resolve(INDEX_FILE);
+        long covered = LOG_HEADER_SIZE;
+
+        if (Files.exists(indexFile) && mapIndex(indexFile)) {
+            covered = index.getLong(16);
+        } else {
+            createIndex(indexFile, INITIAL_CAPACITY, generation);
+        }
+
+        replay(covered);
+    }
+
+    /**
+     * Maps an existing index file and returns whether it is valid.
+     */
+    private boolean mapIndex(Path indexFile) throws IOException {
+        FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (channel.size() >= INDEX_HEADER_SIZE) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int capacity = buffer.getInt(8);
+
+            if (buffer.getInt(0) == INDEX_MAGIC && buffer.getInt(4) == VERSION
+                    && capacity > 0 && Integer.bitCount(capacity) == 1
+                    && channel.size() == INDEX_HEADER_SIZE + (long) capacity * SLOT_SIZE
+                    && buffer.getLong(16) >= LOG_HEADER_SIZE && buffer.getLong(16) <= logLength
+                    && buffer.getLong(24) == generation) {
+                this.indexChannel = channel;
+                this.index = buffer;
+                this.capacity = capacity;
+                this.count = countSlots(buffer, capacity);
+                return true;
+            }
+        }
+
+        channel.close();
+        return false;
+    }
+
+    /**
+     * Counts the occupied slots, since the count in the header may be behind them after an unclean shutdown.
+     */
+    private static int countSlots(MappedByteBuffer buffer, int capacity) {
+        int count = 0;
+
+        for (int slot = 0; slot < capacity; slot++) {
+            if (buffer.getLong(INDEX_HEADER_SIZE + slot * SLOT_SIZE + 8) != 0) {
+                count++;
+            }
+        }
+
+        buffer.putInt(12, count);
+        return count;
+    }
+
+    private void createIndex(Path indexFile, int capacity, long generation) throws IOException {
+        indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = newIndex(indexChannel, capacity, generation);
+        this.capacity = capacity;
+        this.count = 0;
+    }
+
+    private static MappedByteBuffer newIndex(FileChannel channel, int capacity, long generation) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                INDEX_HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        buffer.putInt(0, INDEX_MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        buffer.putInt(12, 0);
+        buffer.putLong(16, LOG_HEADER_SIZE);
+        buffer.putLong(24, generation);
+        return buffer;
+    }
+
+    private static ByteBuffer logHeader(long generation) {
+        return ByteBuffer.allocate(LOG_HEADER_SIZE).putInt(LOG_MAGIC).putInt(VERSION).putLong(generation).flip();
+    }
+
+    /**
+     * Adds the records from the given offset to the index. A broken record at the end of the log,
+     * left by a crash during a write, is cut off.
+     */
+    private void replay(long offset) throws IOException {
+        while (offset < logLength) {
+            byte[] key = readKey(offset);
+
+            if (key == null || readValue(offset) == null) {
+                logChannel.truncate(offset);
+                logChannel.force(true);
+                logLength = offset;
+                logBuffer = logChannel.map(FileChannel.MapMode.READ_ONLY, 0, logLength);
+                break;
+            }
+
+            insert(key, hash(key), offset);
+            offset += recordSize(offset);
+        }
+
+        index.putLong(16, logLength);
+    }
+
+    /**
+     * Returns the offset of the latest record of the key or -1 if there is none.
+     */
+    private long find(byte[] key, long hash) {
+        int mask = capacity - 1;
+
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int position = INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+            long storedOffset = index.getLong(position + 8);
+
+            if (storedOffset == 0) {
+                return -1;
+            }
+
+            if (index.getLong(position) == hash && Arrays.equals(key, readKey(storedOffset - 1))) {
+                return storedOffset - 1;
+            }
+        }
+    }
+
+    private void insert(byte[] key, long hash, long offset) throws IOException {
+        if (count + 1 > capacity * MAX_LOAD_FACTOR) {
+            resizeIndex(capacity * 2);
+        }
+
+        int mask = capacity - 1;
+
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int position = INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+            long storedOffset = index.getLong(position + 8);
+
+            if (storedOffset == 0) {
+                index.putLong(position, hash);
+                index.putLong(position + 8, offset + 1);
+                index.putInt(12, ++count);
+                return;
+            }
+
+            if (index.getLong(position) == hash && Arrays.equals(key, readKey(storedOffset - 1))) {
+                deadBytes += recordSize(storedOffset - 1);
+                index.putLong(position + 8, offset + 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a new index with the given capacity next to the current one and replaces it atomically.
+     */
+    private void resizeIndex(int newCapacity) throws IOException {
+        Path indexFile = directory.resolve(INDEX_FILE);
+        Path newIndexFile = directory.resolve(INDEX_FILE + RESIZE_SUFFIX);
+
+        FileChannel channel = FileChannel.open(newIndexFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = newIndex(channel, newCapacity, generation);
+
+        for (int slot = 0; slot < capacity; slot++) {
+            int position = INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+            long storedOffset = index.getLong(position + 8);
+
+            if (storedOffset != 0) {
+                insertUnique(buffer, newCapacity, index.getLong(position), storedOffset - 1);
+            }
+        }
+
+        buffer.putInt(12, count);
+        buffer.putLong(16, index.getLong(16));
+        buffer.force();
+
+        indexChannel.close();
+        Files.move(newIndexFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        indexChannel = channel;
+        index = buffer;
+        capacity = newCapacity;
+    }
+
+    /**
+     * Inserts into an index which is known not to contain the key yet.
+     */
+    private static void insertUnique(MappedByteBuffer buffer, int capacity, long hash, long offset) {
+        int mask = capacity - 1;
+
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int position = INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+
+            if (buffer.getLong(position + 8) == 0) {
+                buffer.putLong(position, hash);
+                buffer.putLong(position + 8, offset + 1);
+                return;
+            }
+        }
+    }
+
+    private boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return !closed && !readOnly && (logLength > maximumSize || deadBytes > logLength / 2);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the latest record of every key into a new log, dropping the oldest records
+     * if they don't fit into three quarters of the maximum size, and swaps the files.
+     * <p>
+     * </p>
+     * Records appended during the copy are carried over into the new log before the files are swapped,
+     * so appends and lookups only wait for the swap.
+     */
+    void compact() throws IOException {
+        compactionLock.lock();
+        try {
+            Path logFile = directory.resolve(LOG_FILE);
+            Path indexFile = directory.resolve(INDEX_FILE);
+            Path newLogFile = directory.resolve(LOG_FILE + COMPACTION_SUFFIX);
+            Path newIndexFile = directory.resolve(INDEX_FILE + COMPACTION_SUFFIX);
+
+            ByteBuffer log;
+            long copiedLength;
+            long newGeneration;
+            long[] offsets;
+            long[] hashes;
+
+            lock.readLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+
+                // The count in the header may be behind the slots after an unclean shutdown
+                int live = 0;
+
+                for (int slot = 0; slot < capacity; slot++) {
+                    if (index.getLong(INDEX_HEADER_SIZE + slot * SLOT_SIZE + 8) != 0) {
+                        live++;
+                    }
+                }
+
+                offsets = new long[live];
+                hashes = new long[live];
+                live = 0;
+
+                for (int slot = 0; slot < capacity && live < offsets.length; slot++) {
+                    int position = INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+                    long storedOffset = index.getLong(position + 8);
+
+                    if (storedOffset != 0) {
+                        hashes[live] = index.getLong(position);
+                        offsets[live++] = storedOffset - 1;
+                    }
+                }
+
+                // Records before this length are never modified, so they can be copied without the lock
+                copiedLength = logLength;
+                log = logChannel.map(FileChannel.MapMode.READ_ONLY, 0, copiedLength);
+                newGeneration = generation + 1;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            // Live records, oldest first
+            int live = offsets.length;
+            Integer[] order = new Integer[live];
+
+            for (int i = 0; i < live; i++) {
+                order[i] = i;
+            }
+
+            Arrays.sort(order, (a, b) -> Long.compare(offsets[a], offsets[b]));
+
+            long liveBytes = 0;
+
+            for (int i = 0; i < live; i++) {
+                liveBytes += recordSize(log, offsets[i]);
+            }
+
+            int first = 0;
+
+            while (first < live && liveBytes > maximumSize * 3 / 4) {
+                liveBytes -= recordSize(log, offsets[order[first++]]);
+            }
+
+            int newCount = live - first;
+            int newCapacity = INITIAL_CAPACITY;
+
+            while (newCount + 1 > newCapacity * MAX_LOAD_FACTOR / 2) {
+                newCapacity *= 2;
+            }
+
+            FileChannel newLogChannel = null;
+            FileChannel newIndexChannel = null;
+            boolean swapped = false;
+
+            try {
+                newLogChannel = FileChannel.open(newLogFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                newIndexChannel = FileChannel.open(newIndexFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                MappedByteBuffer newIndex = newIndex(newIndexChannel, newCapacity, newGeneration);
+
+                newLogChannel.write(logHeader(newGeneration), 0);
+                long newLogLength = LOG_HEADER_SIZE;
+
+                for (int i = first; i < live; i++) {
+                    int record = order[i];
+                    int size = recordSize(log, offsets[record]);
+                    write(newLogChannel, log.slice((int) offsets[record], size), newLogLength);
+                    insertUnique(newIndex, newCapacity, hashes[record], newLogLength);
+                    newLogLength += size;
+                }
+
+                newLogChannel.force(true);
+                newIndex.putInt(12, newCount);
+                newIndex.putLong(16, newLogLength);
+                newIndex.force();
+
+                lock.writeLock().lock();
+                try {
+                    if (closed) {
+                        return;
+                    }
+
+                    // The index doesn't cover the carried over records, so they are replayed after a crash as well
+                    int tailLength = (int) (logLength - copiedLength);
+                    write(newLogChannel, readLog(copiedLength, tailLength), newLogLength);
+                    newLogChannel.force(true);
+
+                    // If the process dies between the moves, the index of the old generation is rebuilt on startup
+                    indexChannel.close();
+                    logChannel.close();
+                    Files.move(newLogFile, logFile, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    Files.move(newIndexFile, indexFile, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    swapped = true;
+
+                    indexChannel = newIndexChannel;
+                    index = newIndex;
+                    capacity = newCapacity;
+                    count = newCount;
+                    logChannel = newLogChannel;
+                    logLength = newLogLength + tailLength;
+                    logBuffer = logChannel.map(FileChannel.MapMode.READ_ONLY, 0, logLength);
+                    generation = newGeneration;
+                    deadBytes = 0;
+
+                    replay(newLogLength);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                if (!swapped) {
+                    if (newLogChannel != null) {
+                        newLogChannel.close();
+                    }
+
+                    if (newIndexChannel != null) {
+                        newIndexChannel.close();
+                    }
+
+                    Files.deleteIfExists(newLogFile);
+                    Files.deleteIfExists(newIndexFile);
+                }
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes, position + bytes.position());
+        }
+    }
+
+    /**
+     * Returns the key of the record or null if the record is broken.
+     */
+    private byte[] readKey(long offset) {
+        ByteBuffer header = readLog(offset, RECORD_HEADER_SIZE);
+
+        if (header == null) {
+            return null;
+        }
+
+        int keyLength = header.getInt(4);
+        ByteBuffer bytes = readLog(offset + RECORD_HEADER_SIZE, keyLength);
+
+        if (bytes == null) {
+            return null;
+        }
+
+        byte[] key = new byte[keyLength];
+        bytes.get(0, key);
+        return key;
+    }
+
+    /**
+     * Returns the value of the record or null if the record is broken.
+     */
+    private byte[] readValue(long offset) {
+        ByteBuffer header = readLog(offset, RECORD_HEADER_SIZE);
+
+        if (header == null) {
+            return null;
+        }
+
+        int keyLength = header.getInt(4);
+        int valueLength = header.getInt(8);
+
+        // The checksum covers the lengths, the key and the value
+        ByteBuffer checked = keyLength < 0 || valueLength < 0
+                ? null
+                : readLog(offset + 4, 8L + keyLength + valueLength);
+
+        if (checked == null) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(checked.duplicate());
+
+        if ((int) crc.getValue() != header.getInt(0)) {
+            return null;
+        }
+
+        byte[] value = new byte[valueLength];
+        checked.get(8 + keyLength, value);
+        return value;
+    }
+
+    private int recordSize(long offset) {
+        ByteBuffer header = readLog(offset, RECORD_HEADER_SIZE);
+        return RECORD_HEADER_SIZE + header.getInt(4) + header.getInt(8);
+    }
+
+    private static int recordSize(ByteBuffer log, long offset) {
+        int position = (int) offset;
+        return RECORD_HEADER_SIZE + log.getInt(position + 4) + log.getInt(position + 8);
+    }
+
+    /**
+     * Returns the given range of the log, starting at position 0, or null if the log is shorter.
+     * <p>
+     * </p>
+     * A range within the mapped part of the log is a view of the mapping. Records appended since the log was last
+     * mapped are read from the file instead, and the log is only mapped again once this unmapped tail grew by
+     * a quarter of the mapping. Otherwise a lookup after every append would map the whole log again.
+     */
+    private ByteBuffer readLog(long offset, long length) {
+        if (length < 0 || offset + length > logLength) {
+            return null;
+        }
+
+        MappedByteBuffer buffer = logBuffer;
+
+        if (offset + length > buffer.limit()
+                && logLength - buffer.limit() > Math.max(MIN_REMAP_LENGTH, buffer.limit() / 4)) {
+            buffer = remapLog();
+        }
+
+        if (offset + length <= buffer.limit()) {
+            return buffer.slice((int) offset, (int) length);
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate((int) length);
+
+        try {
+            while (bytes.hasRemaining()) {
+                if (logChannel.read(bytes, offset + bytes.position()) < 0) {
+                    return null;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.flip();
+    }
+
+    private synchronized MappedByteBuffer remapLog() {
+        if (logBuffer.limit() < logLength) {
+            try {
+                logBuffer = logChannel.map(FileChannel.MapMode.READ_ONLY, 0, logLength);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return logBuffer;
+    }
+
+    private static ByteBuffer record(byte[] key, byte[] value) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + key.length + value.length);
+        record.putInt(0);
+        record.putInt(key.length);
+        record.putInt(value.length);
+        record.put(key);
+        record.put(value);
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, 8 + key.length + value.length);
+        record.putInt(0, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private byte[] key(String text, SourceLanguage from, TargetLanguage to) {
+        if (normalize) {
+            text = TranslationCache.normalize(text);
+        }
+
+        return (from.name() + '\0' + to.name() + '\0' + text).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long hash(byte[] key) {
+        long hash = Hashing.murmur3_128().hashBytes(key).asLong();
+        return hash == 0 ? 1 : hash;
+    }
+}
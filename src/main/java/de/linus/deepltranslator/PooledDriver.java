@@ -0,0 +1,145 @@
+package de.linus.deepltranslator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * A browser instance managed by a {@link WebDriverPool}.
+ */
+class PooledDriver {
+
+    private final WebDriver driver;
+
+    /**
+     * Quits the browser instance, or closes the tab if the browser instance hosts several tabs.
+     */
+    private final Runnable closer;
+    private final long createdAt;
+    private final ElementCache elements;
+
+    /**
+     * The languages currently selected on the DeepL site, or null if unknown.
+     */
+    private volatile LanguagePair languagePair;
+
+    /**
+     * Whether the page was reset by script and still has to be checked before the next translation.
+     */
+    private volatile boolean validationPending;
+
+    /**
+     * Number of translations done by this instance.
+     */
+    private final AtomicInteger uses = new AtomicInteger();
+
+    /**
+     * The JavaScript heap size of the DeepL site after the last translation in bytes, or 0 if unknown.
+     */
+    private volatile long heapSize;
+
+    /**
+     * Whether a replacement is being started, guarded by the pool.
+     */
+    private boolean retiring;
+
+    /**
+     * Whether the replacement is ready and this instance is quit when it is released, guarded by the pool.
+     */
+    private boolean replaced;
+
+    PooledDriver(WebDriver driver, Runnable closer) {
+        this.driver = driver;
+        this.closer = closer;
+        this.createdAt = System.currentTimeMillis();
+        this.elements = new ElementCache(driver);
+    }
+
+    /**
+     * The underlying browser instance.
+     */
+    WebDriver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Quits the browser instance, or closes the tab if the browser instance hosts several tabs.
+     */
+    void close() {
+        closer.run();
+    }
+
+    /**
+     * Elements of the DeepL site already looked up in this instance.
+     */
+    ElementCache getElements() {
+        return elements;
+    }
+
+    /**
+     * The time this instance was created, in milliseconds since the epoch.
+     */
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * The languages currently selected on the DeepL site, or null if unknown.
+     */
+    LanguagePair getLanguagePair() {
+        return languagePair;
+    }
+
+    void setLanguagePair(LanguagePair languagePair) {
+        this.languagePair = languagePair;
+    }
+
+    /**
+     * Whether the page was reset by script and still has to be checked before the next translation.
+     */
+    boolean isValidationPending() {
+        return validationPending;
+    }
+
+    void setValidationPending(boolean validationPending) {
+        this.validationPending = validationPending;
+    }
+
+    /**
+     * Number of translations done by this instance.
+     */
+    int getUses() {
+        return uses.get();
+    }
+
+    void incrementUses() {
+        uses.incrementAndGet();
+    }
+
+    /**
+     * The JavaScript heap size of the DeepL site after the last translation in bytes, or 0 if unknown.
+     */
+    long getHeapSize() {
+        return heapSize;
+    }
+
+    void setHeapSize(long heapSize) {
+        this.heapSize = heapSize;
+    }
+
+    boolean isRetiring() {
+        return retiring;
+    }
+
+    void setRetiring(boolean retiring) {
+        this.retiring = retiring;
+    }
+
+    boolean isReplaced() {
+        return replaced;
+    }
+
+    void setReplaced(boolean replaced) {
+        this.replaced = replaced;
+    }
+}
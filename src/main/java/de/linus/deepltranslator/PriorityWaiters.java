@@ -0,0 +1,244 @@
+package de.linus.deepltranslator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Callers waiting for a browser instance or another limited resource, served by priority.
+ * <p>
+ * </p>
+ * Freed resources are handed directly to the chosen waiter, so that newly arriving callers can't overtake it.
+ * Waiters of the same priority are served in arrival order. A priority which was passed over by higher
+ * priorities {@value #STARVATION_LIMIT} times in a row is served next.
+ * <p>
+ * </p>
+ * A waiter for the language pair of the freed browser instance goes ahead of the other waiters of its priority,
+ * so that the language selection can be skipped under load as well. The first waiter of a priority is overtaken
+ * this way at most {@value #STARVATION_LIMIT} times.
+ * <p>
+ * </p>
+ * Not thread-safe on its own, all methods must be called while holding the lock of the owner.
+ *
+ * @param <T> what is handed to a waiter
+ */
+class PriorityWaiters<T> {
+
+    /**
+     * How many times in a row waiters of a priority can be passed over by waiters of higher priorities.
+     */
+    static final int STARVATION_LIMIT = 8;
+
+    private final ReentrantLock lock;
+
+    /**
+     * Waiters in arrival order, indexed by the ordinal of their priority.
+     */
+    private final Deque<Waiter<T>>[] queues;
+
+    /**
+     * How many times in a row the waiters of each priority were passed over.
+     */
+    private final int[] passedOver;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    PriorityWaiters(ReentrantLock lock) {
+        this.lock = lock;
+        this.queues = new Deque[TranslationPriority.values().length];
+        this.passedOver = new int[queues.length];
+
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Queues a new waiter for the request.
+     */
+    Waiter<T> add(TranslationRequest request) {
+        return add(request, null);
+    }
+
+    /**
+     * Queues a new waiter for the request, which prefers what is set to the given language pair.
+     *
+     * @param languagePair the requested languages or null if there is no preference
+     */
+    Waiter<T> add(TranslationRequest request, LanguagePair languagePair) {
+        Waiter<T> waiter = new Waiter<>(request, languagePair, lock.newCondition());
+        queues[request.getPriority().ordinal()].addLast(waiter);
+        size++;
+        return waiter;
+    }
+
+    /**
+     * Removes a waiter which gave up, e.g. because of a timeout.
+     */
+    void remove(Waiter<T> waiter) {
+        int index = waiter.getPriority().ordinal();
+
+        if (queues[index].remove(waiter)) {
+            size--;
+
+            if (queues[index].isEmpty()) {
+                passedOver[index] = 0;
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the waiter to serve next, or null if nobody is waiting.
+     */
+    Waiter<T> poll() {
+        return poll(null);
+    }
+
+    /**
+     * Like {@link PriorityWaiters#poll()}, but within the chosen priority a waiter for the given language pair
+     * is preferred.
+     *
+     * @param languagePair the language pair of what is handed to the waiter, or null
+     */
+    Waiter<T> poll(LanguagePair languagePair) {
+        int chosen = -1;
+
+        for (int i = 0; i < queues.length; i++) {
+            if (queues[i].isEmpty()) {
+                continue;
+            }
+
+            if (chosen < 0) {
+                chosen = i;
+            } else if (passedOver[i] >= STARVATION_LIMIT) {
+                chosen = i;
+                break;
+            }
+        }
+
+        if (chosen < 0) {
+            return null;
+        }
+
+        for (int i = chosen + 1; i < queues.length; i++) {
+            if (!queues[i].isEmpty()) {
+                passedOver[i]++;
+            }
+        }
+
+        Waiter<T> waiter = pollPreferred(queues[chosen], languagePair);
+        passedOver[chosen] = 0;
+        size--;
+        return waiter;
+    }
+
+    /**
+     * Removes the first waiter for the language pair, or the first waiter if there is none
+     * or the first waiter was overtaken too often.
+     */
+    private Waiter<T> pollPreferred(Deque<Waiter<T>> queue, LanguagePair languagePair) {
+        Waiter<T> first = queue.peekFirst();
+
+        if (languagePair == null || languagePair.equals(first.languagePair) || first.overtaken >= STARVATION_LIMIT) {
+            return queue.pollFirst();
+        }
+
+        for (Iterator<Waiter<T>> iterator = queue.iterator(); iterator.hasNext(); ) {
+            Waiter<T> waiter = iterator.next();
+
+            if (languagePair.equals(waiter.languagePair)) {
+                iterator.remove();
+                first.overtaken++;
+                return waiter;
+            }
+        }
+
+        return queue.pollFirst();
+    }
+
+    /**
+     * Wakes up all waiters, so that they notice e.g. that the pool was closed.
+     */
+    void wakeAll() {
+        for (Deque<Waiter<T>> queue : queues) {
+            queue.forEach(waiter -> waiter.condition.signal());
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Number of waiters of all priorities.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Number of waiters of the given priority.
+     */
+    int size(TranslationPriority priority) {
+        return queues[priority.ordinal()].size();
+    }
+
+    /**
+     * A caller waiting until something is handed to it.
+     */
+    static class Waiter<T> {
+
+        private final TranslationRequest request;
+        private final LanguagePair languagePair;
+        private final Condition condition;
+        private boolean granted;
+        private T value;
+
+        /**
+         * How many times later waiters of the same priority were preferred for their language pair.
+         */
+        private int overtaken;
+
+        private Waiter(TranslationRequest request, LanguagePair languagePair, Condition condition) {
+            this.request = request;
+            this.languagePair = languagePair;
+            this.condition = condition;
+        }
+
+        /**
+         * Hands the value to the waiter and wakes it up.
+         */
+        void grant(T value) {
+            this.granted = true;
+            this.value = value;
+            condition.signal();
+        }
+
+        TranslationPriority getPriority() {
+            return request.getPriority();
+        }
+
+        boolean isGranted() {
+            return granted;
+        }
+
+        /**
+         * What was handed to the waiter, may be null if only a permission was granted.
+         */
+        T getValue() {
+            return value;
+        }
+
+        /**
+         * Waits until something is handed to the waiter, the timeout elapses or the request is cancelled.
+         *
+         * @throws java.util.concurrent.CancellationException if the request was cancelled
+         */
+        void await(long timeoutMillis) throws InterruptedException {
+            request.await(condition, timeoutMillis);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package de.linus.deepltranslator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * A Chrome user data directory which already visited the DeepL site, so that its HTTP cache and cookies are warm.
+ * <p>
+ * </p>
+ * The template is seeded once by a browser instance which uses it directly. Afterwards, every browser instance
+ * gets its own copy, because Chrome locks its user data directory.
+ */
+class ProfileTemplate {
+
+    /**
+     * Marks a completely seeded template.
+     */
+    private static final String SEEDED_MARKER = ".deepl-seeded";
+
+    /**
+     * Files which belong to the running browser that created them.
+     */
+    private static final Set<String> SKIPPED_FILES = Set.of("SingletonLock", "SingletonCookie", "SingletonSocket",
+            SEEDED_MARKER);
+
+    /**
+     * A lock per template. Seeding starts a whole browser, so a monitor would pin the carrier thread
+     * of a virtual thread meanwhile.
+     */
+    private static final Map<Path, ReentrantLock> SEED_LOCKS = new ConcurrentHashMap<>();
+
+    private ProfileTemplate() {}
+
+    /**
+     * Seeds the template with the given action unless this already happened, also in an earlier run.
+     * Concurrent callers for the same template wait until it is seeded.
+     *
+     * @param seeder starts a browser instance with the template as its user data directory,
+     *               loads the DeepL site and quits it
+     */
+    static void seed(Path template, Runnable seeder) {
+        Path key = template.toAbsolutePath().normalize();
+
+        ReentrantLock lock = SEED_LOCKS.computeIfAbsent(key, k -> new ReentrantLock());
+
+        lock.lock();
+        try {
+            if (Files.exists(key.resolve(SEEDED_MARKER))) {
+                return;
+            }
+
+            Files.createDirectories(key);
+            seeder.run();
+            Files.createFile(key.resolve(SEEDED_MARKER));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies the template into a new temporary directory.
+     */
+    static Path copy(Path template) {
+        try {
+            Path target = Files.createTempDirectory("deepl-profile-");
+
+            Files.walkFileTree(template, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(target.resolve(template.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (attrs.isRegularFile() && !SKIPPED_FILES.contains(file.getFileName().toString())) {
+                        Files.copy(file, target.resolve(template.relativize(file).toString()),
+                                StandardCopyOption.COPY_ATTRIBUTES);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    // Chrome's cache may drop files while the template is seeded by another process
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes a copy of the template, ignoring files which can't be deleted.
+     */
+    static void delete(Path copy) {
+        try (Stream<Path> paths = Files.walk(copy)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignore) {}
+            });
+        } catch (IOException | UncheckedIOException ignore) {}
+    }
+}
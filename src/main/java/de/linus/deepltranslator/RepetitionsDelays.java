@@ -0,0 +1,57 @@
+package de.linus.deepltranslator;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Built-in policies for {@link DeepLConfiguration.Builder#setRepetitionsDelay(Function)}.
+ * <p>
+ * </p>
+ * Randomized delays spread the repetitions of many requests which timed out at the same time,
+ * instead of sending them to DeepL again all at once.
+ */
+public final class RepetitionsDelays {
+
+    private RepetitionsDelays() {
+    }
+
+    /**
+     * The same delay before every repetition.
+     */
+    public static Function<Integer, Duration> fixed(Duration delay) {
+        return retryNumber -> delay;
+    }
+
+    /**
+     * Exponential backoff with full jitter: a random delay between zero and
+     * [base * 2 ^ retryNumber], but at most the given maximum.
+     */
+    public static Function<Integer, Duration> exponentialWithJitter(Duration base, Duration max) {
+        return retryNumber -> {
+            long ceiling = base.toMillis() << Math.min(retryNumber, 30);
+
+            if (ceiling <= 0 || ceiling > max.toMillis()) {
+                ceiling = max.toMillis();
+            }
+
+            return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        };
+    }
+
+    /**
+     * Randomizes the given delays by up to the given ratio in both directions,
+     * e.g. a ratio of 0.2 turns 10 seconds into 8 to 12 seconds.
+     */
+    public static Function<Integer, Duration> withJitter(Function<Integer, Duration> delay, double ratio) {
+        if (ratio <= 0) {
+            return delay;
+        }
+
+        return retryNumber -> {
+            long millis = delay.apply(retryNumber).toMillis();
+            double factor = 1 + ThreadLocalRandom.current().nextDouble(-ratio, ratio);
+            return Duration.ofMillis(Math.max(0, Math.round(millis * factor)));
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package de.linus.deepltranslator;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Threads shared by all translators, for asynchronous translating and for cleaning up browsers.
+ * <p>
+ * </p>
+ * On Java 21 and later, every task runs on its own virtual thread, so tasks waiting for a browser
+ * or a WebDriver response don't occupy a platform thread. On older versions, a cached pool of daemon
+ * platform threads is used. Either way, the number of concurrent translations is bounded by the
+ * browser pools, not by the number of threads.
+ */
+final class SharedRuntime {
+
+    private static ExecutorService executor;
+    private static boolean virtualThreads;
+
+    private SharedRuntime() {
+    }
+
+    /**
+     * Runs the task on the shared runtime, which is started if necessary.
+     */
+    static void execute(Runnable task) {
+        executor().execute(task);
+    }
+
+    static synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = newExecutor();
+        }
+
+        return executor;
+    }
+
+    /**
+     * Whether tasks run on virtual threads.
+     */
+    static synchronized boolean usesVirtualThreads() {
+        executor();
+        return virtualThreads;
+    }
+
+    /**
+     * Interrupts all running tasks. The runtime is started again by the next task.
+     */
+    static synchronized void shutdownNow() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService virtualThreadExecutor = (ExecutorService) method.invoke(null);
+            virtualThreads = true;
+            return virtualThreadExecutor;
+        } catch (ReflectiveOperationException e) {
+            virtualThreads = false;
+            return Executors.newCachedThreadPool(
+                    new ThreadFactoryBuilder().setNameFormat("deepl-translator-%d").setDaemon(true).build());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package de.linus.deepltranslator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Several short texts packed into one submission.
+ * <p>
+ * </p>
+ * The texts are separated by blank lines, which DeepL keeps as paragraph breaks.
+ * Texts which contain blank lines themselves can't be packed and form a batch of their own.
+ *
+ * @see DeepLTranslator#translateBatch(List, SourceLanguage, TargetLanguage)
+ */
+class TextBatch {
+
+    static final String DELIMITER = "\n\n";
+
+    private static final Pattern DELIMITER_PATTERN = Pattern.compile("\\n\\s*\\n");
+
+    /**
+     * Positions of the texts in the original list.
+     */
+    private final List<Integer> indices = new ArrayList<>();
+    private final StringBuilder text = new StringBuilder();
+    private final boolean packable;
+
+    private TextBatch(boolean packable) {
+        this.packable = packable;
+    }
+
+    /**
+     * Packs the texts into as few batches as possible, each not exceeding the given length.
+     * Within a batch, the texts keep their original order.
+     */
+    static List<TextBatch> pack(List<String> texts, int maxLength) {
+        List<TextBatch> batches = new ArrayList<>();
+        TextBatch current = null;
+
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i).trim();
+
+            if (!isPackable(text)) {
+                TextBatch single = new TextBatch(false);
+                single.add(i, texts.get(i));
+                batches.add(single);
+                continue;
+            }
+
+            if (current == null || current.length() + DELIMITER.length() + text.length() > maxLength) {
+                current = new TextBatch(true);
+                batches.add(current);
+            }
+
+            current.add(i, text);
+        }
+
+        return batches;
+    }
+
+    private static boolean isPackable(String text) {
+        return !DELIMITER_PATTERN.matcher(text).find();
+    }
+
+    private void add(int index, String text) {
+        if (!indices.isEmpty()) {
+            this.text.append(DELIMITER);
+        }
+
+        indices.add(index);
+        this.text.append(text);
+    }
+
+    /**
+     * Positions of the texts in the original list.
+     */
+    List<Integer> getIndices() {
+        return indices;
+    }
+
+    int size() {
+        return indices.size();
+    }
+
+    int length() {
+        return text.length();
+    }
+
+    /**
+     * The packed texts as one submission.
+     */
+    String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Splits the translation of this batch into the translations of the single texts.
+     *
+     * @return the translations in the order of {@link TextBatch#getIndices()},
+     *         or null if the number of paragraphs doesn't match anymore
+     */
+    List<String> split(String translation) {
+        return split(translation, UnaryOperator.identity());
+    }
+
+    /**
+     * Splits the translation of this batch, which must not be post-processed yet,
+     * and post-processes the translations of the single texts.
+     *
+     * @see TextBatch#split(String)
+     */
+    List<String> split(String translation, UnaryOperator<String> postProcessing) {
+        if (!packable || indices.size() == 1) {
+            return List.of(postProcessing.apply(translation));
+        }
+
+        String[] parts = DELIMITER_PATTERN.split(translation.trim());
+
+        if (parts.length != indices.size()) {
+            return null;
+        }
+
+        List<String> translations = new ArrayList<>(parts.length);
+
+        for (String part : parts) {
+            translations.add(postProcessing.apply(part.trim()));
+        }
+
+        return translations;
+    }
+}
@@ -0,0 +1,85 @@
+package de.linus.deepltranslator;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits long texts at sentence and paragraph boundaries into chunks DeepL can translate at once.
+ *
+ * @see DeepLTranslator#translateLongText(String, SourceLanguage, TargetLanguage)
+ */
+class TextChunker {
+
+    private TextChunker() {
+    }
+
+    /**
+     * Splits the text into chunks of at most the given length.
+     * <p>
+     * </p>
+     * Chunks end at sentence boundaries, preferably at paragraph boundaries if one is in the second half
+     * of a chunk. Sentences longer than the limit are split at word boundaries.
+     * The concatenation of all chunks is exactly the original text, whitespace included.
+     */
+    static List<String> split(String text, SourceLanguage from, int maxLength) {
+        List<String> chunks = new ArrayList<>();
+        BreakIterator sentences = BreakIterator.getSentenceInstance(localeOf(from));
+        sentences.setText(text);
+
+        int chunkStart = 0;
+        int lastBoundary = 0;
+        int lastParagraphBoundary = -1;
+
+        for (int boundary = sentences.next(); boundary != BreakIterator.DONE; boundary = sentences.next()) {
+            if (boundary - chunkStart > maxLength) {
+                if (lastParagraphBoundary - chunkStart >= maxLength / 2) {
+                    chunks.add(text.substring(chunkStart, lastParagraphBoundary));
+                    chunkStart = lastParagraphBoundary;
+                }
+
+                if (boundary - chunkStart > maxLength && lastBoundary > chunkStart) {
+                    chunks.add(text.substring(chunkStart, lastBoundary));
+                    chunkStart = lastBoundary;
+                }
+
+                // A single sentence exceeding the limit
+                while (boundary - chunkStart > maxLength) {
+                    int end = splitSentence(text, chunkStart, chunkStart + maxLength, from);
+                    chunks.add(text.substring(chunkStart, end));
+                    chunkStart = end;
+                }
+
+                lastParagraphBoundary = -1;
+            }
+
+            lastBoundary = boundary;
+
+            if (boundary > 0 && text.charAt(boundary - 1) == '\n') {
+                lastParagraphBoundary = boundary;
+            }
+        }
+
+        if (chunkStart < text.length()) {
+            chunks.add(text.substring(chunkStart));
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Returns the last word boundary after start and not after end, or end if there is none.
+     */
+    private static int splitSentence(String text, int start, int end, SourceLanguage from) {
+        BreakIterator words = BreakIterator.getWordInstance(localeOf(from));
+        words.setText(text);
+        int boundary = words.preceding(end + 1);
+
+        return boundary > start ? boundary : end;
+    }
+
+    private static Locale localeOf(SourceLanguage language) {
+        return language == SourceLanguage.AUTO_DETECT ? Locale.ROOT : Locale.forLanguageTag(language.getLanguageCode());
+    }
+}
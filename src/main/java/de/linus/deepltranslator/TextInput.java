@@ -0,0 +1,20 @@
+package de.linus.deepltranslator;
+
+/**
+ * How the source text is entered on the DeepL site.
+ */
+public enum TextInput {
+
+    /**
+     * Types the text key by key, like a user would.
+     * Takes several seconds for long texts and DeepL starts translating after every few keys.
+     */
+    SEND_KEYS,
+
+    /**
+     * Inserts the whole text at once, so that DeepL receives a single input event.
+     * Uses the DevTools command Input.insertText for Chrome and a script for remote browsers,
+     * and falls back to {@link #SEND_KEYS} if the text could not be inserted.
+     */
+    INSERT_TEXT
+}
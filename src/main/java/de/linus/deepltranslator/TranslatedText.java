@@ -0,0 +1,37 @@
+package de.linus.deepltranslator;
+
+/**
+ * A text of a translation stream together with its translation.
+ */
+public class TranslatedText {
+
+    private final long index;
+    private final String text;
+    private final String translation;
+
+    TranslatedText(long index, String text, String translation) {
+        this.index = index;
+        this.text = text;
+        this.translation = translation;
+    }
+
+    /**
+     * Position of the text in the source stream, starting at 0.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getTranslation() {
+        return translation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d: %s -> %s", index, text, translation);
+    }
+}
@@ -0,0 +1,72 @@
+package de.linus.deepltranslator;
+
+import java.util.regex.Pattern;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Bounded in-memory cache of translations, weighted by the number of characters of the
+ * source text and the translation.
+ *
+ * @see DeepLConfiguration#getCacheMaximumWeight()
+ */
+class TranslationCache {
+
+    private static final Pattern MULTIPLE_SPACES = Pattern.compile("\\s{2,}");
+
+    private final Cache<Key, String> cache;
+
+    /**
+     * Whether the translations are post-processed, in which case source texts
+     * differing only in surrounding or repeated whitespace share one entry.
+     */
+    private final boolean normalize;
+
+    TranslationCache(DeepLConfiguration configuration) {
+        this.normalize = configuration.isPostProcessingEnabled();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(configuration.getCacheMaximumWeight())
+                .weigher((Key key, String translation) -> key.text().length() + translation.length())
+                .expireAfterWrite(configuration.getCacheExpiration())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached translation or null if there is none.
+     */
+    String get(String text, SourceLanguage from, TargetLanguage to) {
+        return cache.getIfPresent(key(text, from, to));
+    }
+
+    void put(String text, SourceLanguage from, TargetLanguage to, String translation) {
+        if (translation != null) {
+            cache.put(key(text, from, to), translation);
+        }
+    }
+
+    CacheStats getStatistics() {
+        return cache.stats();
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private Key key(String text, SourceLanguage from, TargetLanguage to) {
+        return new Key(normalize ? normalize(text) : text, from, to);
+    }
+
+    /**
+     * Removes leading and trailing whitespace and replaces multiple consecutive whitespace
+     * with a single space, like the post-processing of translations.
+     */
+    static String normalize(String text) {
+        return MULTIPLE_SPACES.matcher(text.trim()).replaceAll(" ");
+    }
+
+    private record Key(String text, SourceLanguage from, TargetLanguage to) {
+    }
+}
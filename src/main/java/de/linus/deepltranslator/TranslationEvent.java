@@ -0,0 +1,77 @@
+package de.linus.deepltranslator;
+
+/**
+ * Events which are counted.
+ *
+ * @see TranslationMetrics#increment(TranslationEvent)
+ */
+public enum TranslationEvent {
+
+    /**
+     * A translation timed out.
+     */
+    TIMEOUT("timeouts"),
+
+    /**
+     * A translation which timed out is repeated.
+     */
+    RETRY("retries"),
+
+    /**
+     * A request was rejected, because too many requests were waiting for a browser instance.
+     */
+    REJECTED("rejected_requests"),
+
+    /**
+     * A browser instance was started.
+     */
+    DRIVER_STARTED("drivers_started"),
+
+    /**
+     * A broken browser instance was quit.
+     */
+    DRIVER_DISCARDED("drivers_discarded"),
+
+    /**
+     * A browser instance was due for retirement and is replaced in the background.
+     */
+    DRIVER_RECYCLED("drivers_recycled"),
+
+    /**
+     * The adaptive concurrency limit was raised, because it was reached without signs of throttling.
+     */
+    CONCURRENCY_LIMIT_INCREASED("concurrency_limit_increases"),
+
+    /**
+     * The adaptive concurrency limit was lowered, because translations became much slower than usual.
+     */
+    CONCURRENCY_LIMIT_LATENCY_DECREASED("concurrency_limit_latency_decreases"),
+
+    /**
+     * The adaptive concurrency limit was lowered, because too many translations timed out.
+     */
+    CONCURRENCY_LIMIT_TIMEOUT_DECREASED("concurrency_limit_timeout_decreases"),
+
+    /**
+     * A request was cancelled by its caller before it completed.
+     */
+    CANCELLED("cancelled_requests"),
+
+    /**
+     * A compaction of the persistent store failed, so the store stopped accepting new translations.
+     */
+    STORE_COMPACTION_FAILED("store_compaction_failures");
+
+    private final String metricName;
+
+    TranslationEvent(String metricName) {
+        this.metricName = metricName;
+    }
+
+    /**
+     * The name of the counter in exported metrics.
+     */
+    public String getMetricName() {
+        return metricName;
+    }
+}
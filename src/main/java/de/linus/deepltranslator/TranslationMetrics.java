@@ -0,0 +1,52 @@
+package de.linus.deepltranslator;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Receives the durations of the translation phases, event counts and gauges of a translator.
+ * <p>
+ * </p>
+ * Implement this interface to forward the metrics to a monitoring library,
+ * or use the built-in {@link MetricsRegistry}. Implementations must be thread-safe.
+ *
+ * @see DeepLConfiguration#getMetrics()
+ */
+public interface TranslationMetrics {
+
+    /**
+     * Discards all metrics.
+     */
+    TranslationMetrics NONE = new TranslationMetrics() {
+        @Override
+        public void recordPhase(TranslationPhase phase, Duration duration) {
+        }
+
+        @Override
+        public void increment(TranslationEvent event) {
+        }
+    };
+
+    /**
+     * Records how long a phase of a translation took.
+     */
+    void recordPhase(TranslationPhase phase, Duration duration);
+
+    /**
+     * Counts an event.
+     */
+    void increment(TranslationEvent event);
+
+    /**
+     * Registers a value which is read whenever the metrics are exported.
+     * Gauges registered with the same name by several translators are summed up.
+     */
+    default void registerGauge(String name, String help, Supplier<? extends Number> value) {
+    }
+
+    /**
+     * Removes a value registered before, e.g. because its translator was closed.
+     */
+    default void unregisterGauge(String name, Supplier<? extends Number> value) {
+    }
+}
@@ -0,0 +1,62 @@
+package de.linus.deepltranslator;
+
+/**
+ * The steps of a translation whose durations are recorded.
+ *
+ * @see TranslationMetrics#recordPhase(TranslationPhase, java.time.Duration)
+ */
+public enum TranslationPhase {
+
+    /**
+     * Waiting for a browser instance of the pool, including starting a new one.
+     */
+    ACQUIRE("acquire"),
+
+    /**
+     * Starting a new browser instance and loading the DeepL site.
+     */
+    COLD_START("cold_start"),
+
+    /**
+     * Launching the browser process and its WebDriver session, as part of a cold start.
+     */
+    BROWSER_LAUNCH("browser_launch"),
+
+    /**
+     * Loading the DeepL site, as part of a cold start or when a broken page is reloaded.
+     */
+    PAGE_LOAD("page_load"),
+
+    /**
+     * Selecting the source and target language on the DeepL site.
+     */
+    LANGUAGE_SELECTION("language_selection"),
+
+    /**
+     * Entering the source text.
+     */
+    TYPING("typing"),
+
+    /**
+     * Waiting for the translation to be complete.
+     */
+    WAITING("waiting"),
+
+    /**
+     * Clearing the DeepL site after a translation, before the browser instance is returned to the pool.
+     */
+    CLEANUP("cleanup");
+
+    private final String metricName;
+
+    TranslationPhase(String metricName) {
+        this.metricName = metricName;
+    }
+
+    /**
+     * The name of the phase in exported metrics.
+     */
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,40 @@
+package de.linus.deepltranslator;
+
+/**
+ * How urgently a translation needs a browser instance.
+ * <p>
+ * </p>
+ * When a browser instance becomes free, it is handed to the waiting request with the highest priority.
+ * To keep lower priorities from starving, a waiting request is served after requests of higher priorities
+ * were preferred {@value PriorityWaiters#STARVATION_LIMIT} times in a row.
+ */
+public enum TranslationPriority {
+
+    /**
+     * Interactive requests, e.g. a user waiting for the translation.
+     */
+    HIGH("high"),
+
+    /**
+     * The priority of requests without an explicit priority.
+     */
+    NORMAL("normal"),
+
+    /**
+     * Bulk jobs, e.g. translating a large number of texts in the background.
+     */
+    LOW("low");
+
+    private final String metricName;
+
+    TranslationPriority(String metricName) {
+        this.metricName = metricName;
+    }
+
+    /**
+     * The suffix of the queue depth gauges of this priority.
+     */
+    public String getMetricName() {
+        return metricName;
+    }
+}
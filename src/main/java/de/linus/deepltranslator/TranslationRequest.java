@@ -0,0 +1,171 @@
+package de.linus.deepltranslator;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+/**
+ * One request as seen by the pool: its priority, the time by which it must be done including all its
+ * repetitions, and whether it was cancelled.
+ * <p>
+ * </p>
+ * A cancelled request stops wherever it waits: for the concurrency limit or a browser instance, between two
+ * polls of a browser wait, or before a repetition. The browser instance is then reset and handed back to the pool.
+ */
+class TranslationRequest {
+
+    /**
+     * How often browser waits which run inside the browser return to check for cancellation.
+     */
+    static final Duration CANCELLATION_CHECK_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * Same as Selenium's default.
+     */
+    private static final Duration POLLING_INTERVAL = Duration.ofMillis(500);
+
+    private final TranslationPriority priority;
+
+    /**
+     * The deadline in milliseconds since the epoch, or Long.MAX_VALUE if there is none.
+     */
+    private final long deadlineMillis;
+
+    /**
+     * Whether the request can be cancelled at all, otherwise browser waits don't have to return early.
+     */
+    private final boolean cancellable;
+
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+
+    /**
+     * The thread which waits for the concurrency limit or a browser instance, guarded by this.
+     */
+    private Thread waitingThread;
+
+    /**
+     * A request without deadline which can't be cancelled.
+     */
+    TranslationRequest(TranslationPriority priority) {
+        this(priority, Duration.ZERO, false);
+    }
+
+    /**
+     * @param requestTimeout the maximum duration of the request, zero for none
+     * @param cancellable whether {@link TranslationRequest#cancel()} may be called
+     */
+    TranslationRequest(TranslationPriority priority, Duration requestTimeout, boolean cancellable) {
+        this.priority = priority;
+        this.deadlineMillis = requestTimeout.isZero()
+                ? Long.MAX_VALUE
+                : System.currentTimeMillis() + requestTimeout.toMillis();
+        this.cancellable = cancellable;
+    }
+
+    TranslationPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * The end of an attempt which may take up to the given time, but not beyond the deadline.
+     */
+    long limit(long timeoutMillisEnd) {
+        return Math.min(timeoutMillisEnd, deadlineMillis);
+    }
+
+    /**
+     * Whether a repetition after the given delay would still start before the deadline.
+     */
+    boolean allowsRetryAfter(Duration delay) {
+        return !isCancelled() && System.currentTimeMillis() + delay.toMillis() < deadlineMillis;
+    }
+
+    /**
+     * Stops the request. Can be called several times and from any thread.
+     */
+    void cancel() {
+        synchronized (this) {
+            if (isCancelled()) {
+                return;
+            }
+
+            cancelled.countDown();
+
+            if (waitingThread != null) {
+                waitingThread.interrupt();
+            }
+        }
+    }
+
+    boolean isCancelled() {
+        return cancelled.getCount() == 0;
+    }
+
+    boolean isCancellable() {
+        return cancellable;
+    }
+
+    /**
+     * @throws CancellationException if the request was cancelled
+     */
+    void throwIfCancelled() throws CancellationException {
+        if (isCancelled()) {
+            throw new CancellationException("Translation was cancelled");
+        }
+    }
+
+    /**
+     * Sleeps for the given duration, but wakes up as soon as the request is cancelled.
+     *
+     * @throws CancellationException if the request was cancelled
+     */
+    void sleep(Duration duration) throws InterruptedException, CancellationException {
+        if (cancelled.await(duration.toMillis(), TimeUnit.MILLISECONDS)) {
+            throwIfCancelled();
+        }
+    }
+
+    /**
+     * Waits on the condition, but wakes up as soon as the request is cancelled.
+     * Only this wait is interrupted, never a command sent to the browser.
+     *
+     * @throws CancellationException if the request was cancelled
+     */
+    void await(Condition condition, long timeoutMillis) throws InterruptedException, CancellationException {
+        synchronized (this) {
+            throwIfCancelled();
+            waitingThread = Thread.currentThread();
+        }
+
+        try {
+            condition.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throwIfCancelled();
+            throw e;
+        } finally {
+            synchronized (this) {
+                waitingThread = null;
+
+                // The interrupt was meant for this wait only
+                if (isCancelled()) {
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        throwIfCancelled();
+    }
+
+    /**
+     * A browser wait which ends at once when the request is cancelled.
+     */
+    WebDriverWait newWait(WebDriver driver, Duration timeout) {
+        return new WebDriverWait(driver, timeout, POLLING_INTERVAL, Clock.systemDefaultZone(), this::sleep);
+    }
+}
@@ -0,0 +1,140 @@
+package de.linus.deepltranslator;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * Translates the texts of a source iterator with a bounded number of translations running at the same time.
+ * <p>
+ * </p>
+ * Source texts are only pulled when a translation was taken, so that at most the given number of texts and
+ * translations are held, no matter how many texts the source has. In order, a translation is returned once
+ * all translations before it are returned, otherwise as soon as it is complete.
+ * <p>
+ * </p>
+ * Like any iterator, it must be used by one thread at a time.
+ */
+class TranslationStream implements Iterator<TranslatedText>, AutoCloseable {
+
+    private final Iterator<String> source;
+    private final Function<String, CompletableFuture<String>> translator;
+    private final int maxInFlight;
+    private final boolean ordered;
+
+    /**
+     * Running translations in source order.
+     */
+    private final Queue<Item> inFlight = new ArrayDeque<>();
+
+    /**
+     * Completed translations in completion order, only used if not ordered.
+     */
+    private final BlockingQueue<Item> completed = new LinkedBlockingQueue<>();
+
+    private long nextIndex;
+    private boolean closed;
+
+    /**
+     * @param translator starts the translation of a text
+     * @param maxInFlight the maximum number of translations running at the same time
+     * @param ordered whether the translations are returned in source order
+     */
+    TranslationStream(Iterator<String> source, Function<String, CompletableFuture<String>> translator,
+            int maxInFlight, boolean ordered) {
+        this.source = source;
+        this.translator = translator;
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !inFlight.isEmpty();
+    }
+
+    /**
+     * Waits for the next translation.
+     *
+     * @throws CancellationException if the stream was closed or the waiting thread was interrupted
+     */
+    @Override
+    public TranslatedText next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Item item;
+
+        if (ordered) {
+            item = inFlight.poll();
+        } else {
+            try {
+                item = completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new CancellationException("Interrupted while waiting for a translation");
+            }
+
+            inFlight.remove(item);
+        }
+
+        try {
+            return new TranslatedText(item.index, item.text, item.translation.join());
+        } catch (CompletionException | CancellationException e) {
+            // The remaining translations are of no use anymore
+            close();
+
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause)
+                throw cause;
+
+            throw e;
+        }
+    }
+
+    /**
+     * Starts translations of further source texts until the limit is reached.
+     */
+    private void fill() {
+        while (!closed && inFlight.size() < maxInFlight && source.hasNext()) {
+            String text = source.next();
+            Item item;
+
+            try {
+                item = new Item(nextIndex++, text, translator.apply(text));
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+
+            inFlight.add(item);
+
+            if (!ordered) {
+                item.translation.whenComplete((translation, ex) -> completed.add(item));
+            }
+        }
+    }
+
+    /**
+     * Cancels the running translations and stops pulling source texts.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        inFlight.forEach(item -> item.translation.cancel(false));
+        inFlight.clear();
+        completed.clear();
+    }
+
+    private record Item(long index, String text, CompletableFuture<String> translation) {
+    }
+}
@@ -0,0 +1,164 @@
+package de.linus.deepltranslator;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The asynchronous tasks of one translator, running on the {@link SharedRuntime}.
+ * <p>
+ * </p>
+ * Shutting it down only affects the tasks of this translator, the shared threads keep running.
+ */
+class TranslatorExecutor extends AbstractExecutorService {
+
+    private final Executor delegate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition terminated = lock.newCondition();
+
+    /**
+     * Threads currently running a task of this executor.
+     */
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Number of tasks submitted but not finished yet.
+     */
+    private int pending;
+    private boolean shutdown;
+    private volatile boolean stopped;
+
+    TranslatorExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(command, delegate, false);
+    }
+
+    /**
+     * Continues a running task of this executor with the given task after the delay, e.g. to repeat a request,
+     * without occupying a thread while waiting. It must only be called from a running task.
+     * <p>
+     * </p>
+     * The continuation counts as pending before the running task finishes, so
+     * {@link TranslatorExecutor#awaitTermination(long, TimeUnit)} waits for it. It is even accepted
+     * after {@link TranslatorExecutor#shutdown()}, so that tasks submitted before aren't cut short.
+     */
+    void continueAfter(Runnable command, long delay, TimeUnit unit) {
+        execute(command, CompletableFuture.delayedExecutor(delay, unit, delegate), true);
+    }
+
+    private void execute(Runnable command, Executor executor, boolean continuation) {
+        lock.lock();
+        try {
+            if (stopped || shutdown && !continuation) {
+                throw new RejectedExecutionException("Translator has been shut down");
+            }
+
+            pending++;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            executor.execute(() -> {
+                Thread thread = Thread.currentThread();
+                running.add(thread);
+
+                try {
+                    if (!stopped) {
+                        command.run();
+                    }
+                } finally {
+                    running.remove(thread);
+                    finished();
+                }
+            });
+        } catch (RuntimeException e) {
+            finished();
+            throw e;
+        }
+    }
+
+    private void finished() {
+        lock.lock();
+        try {
+            if (--pending == 0) {
+                terminated.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Interrupts the running tasks and skips the tasks which didn't start yet.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        stopped = true;
+        running.forEach(Thread::interrupt);
+        return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        lock.lock();
+        try {
+            return shutdown && pending == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+
+        lock.lock();
+        try {
+            while (pending > 0) {
+                if (nanos <= 0) {
+                    return false;
+                }
+
+                nanos = terminated.awaitNanos(nanos);
+            }
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -2,14 +2,17 @@ package de.linus.deepltranslator;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
 public class WebDriverBuilder {
@@ -17,6 +20,104 @@ public class WebDriverBuilder {
     static String REMOTE_WEBDRIVER_URL;
     // static boolean HEADLESS;
     private boolean headless;
+    private boolean leanProfile;
+    private List<String> blockedUrls = List.of();
+
+    /**
+     * Defaults to the static settings, which are only kept for compatibility.
+     * Concurrent builders for different translators must use the instance settings.
+     */
+    private String remoteWebDriverUrl = REMOTE_WEBDRIVER_URL;
+    private String userAgent = USER_AGENT;
+    private Duration timeout = TIMEOUT;
+
+    /**
+     * The user data directory to use directly, or null.
+     */
+    private Path userDataDirectory;
+
+    /**
+     * The user data directory to copy for this browser instance, or null.
+     */
+    private Path profileTemplate;
+
+    /**
+     * Chrome features which are not needed to translate, turned off by the lean profile.
+     */
+    private static final List<String> LEAN_ARGUMENTS = List.of(
+            "--disable-background-networking",
+            "--disable-component-update",
+            "--disable-default-apps",
+            "--disable-extensions",
+            "--disable-sync",
+            "--disable-features=Translate,OptimizationHints,MediaRouter,AutofillServerCommunication",
+            "--metrics-recording-only",
+            "--mute-audio",
+            "--no-first-run",
+            "--blink-settings=imagesEnabled=false",
+            "--renderer-process-limit=2");
+
+    /**
+     * Pass Chrome object test
+     */
+    private static final String CHROME_OBJECT_SCRIPT = "window.chrome = {runtime: {},};";
+
+    /**
+     * Pass mime test
+     */
+    private static final String MIME_SCRIPT = "Object.defineProperty(navigator, 'mimeTypes', { " +
+            "get: () => { " +
+            "       var mime = {};" +
+            "       mime.__proto__ = MimeType.prototype;" +
+            "       var mimes = {" +
+            "           0: mime," +
+            "           length: 1," +
+            "           __proto__: MimeTypeArray.prototype," +
+            "       };" +
+            "       return mimes;" +
+            "   }, " +
+            "});";
+
+    /**
+     * Pass plugins prototype test
+     */
+    private static final String PLUGINS_SCRIPT = "Object.defineProperty(navigator, 'plugins', { " +
+            "get: () => { " +
+            "       var ChromiumPDFPlugin = {};" +
+            "       ChromiumPDFPlugin.__proto__ = Plugin.prototype;" +
+            "       var plugins = {" +
+            "           0: ChromiumPDFPlugin," +
+            "           description: 'Portable Document Format'," +
+            "           filename: 'internal-pdf-viewer'," +
+            "           length: 1," +
+            "           name: 'Chromium PDF Plugin'," +
+            "           __proto__: PluginArray.prototype," +
+            "       };" +
+            "       return plugins;" +
+            "   }, " +
+            "});";
+
+    /**
+     * Pass rtt test
+     */
+    private static final String RTT_SCRIPT = "Object.defineProperty(navigator, 'maxTouchPoints', {get: () => 1}); " +
+            "Object.defineProperty(navigator.connection, 'rtt', {get: () => 100});";
+
+    private static final String SCREEN_SCRIPT =
+            "Object.defineProperty(screen, 'height', {value: 1080, configurable: true, writeable: true});" +
+            "Object.defineProperty(screen, 'width', {value: 1920, configurable: true, writeable: true});" +
+            "Object.defineProperty(screen, 'availWidth', {value: 1920, configurable: true, writeable: true});" +
+            "Object.defineProperty(screen, 'availHeight', {value: 1080, configurable: true, writeable: true});";
+
+    /**
+     * All scripts above, injected with a single command. Every script is guarded,
+     * so that a failing one does not prevent the others.
+     */
+    private static final String STEALTH_SCRIPT = String.join("\n",
+            List.of(RTT_SCRIPT, PLUGINS_SCRIPT, MIME_SCRIPT, CHROME_OBJECT_SCRIPT, SCREEN_SCRIPT).stream()
+                    .map(script -> "try { " + script + " } catch (e) {}")
+                    .toList());
+
     static String USER_AGENT;
     static Duration TIMEOUT;
 
@@ -39,7 +140,7 @@ public class WebDriverBuilder {
     }
 
     public WebDriver build() {
-        if (REMOTE_WEBDRIVER_URL == null) {
+        if (remoteWebDriverUrl == null) {
             return newWebDriver();
         } else {
             return newRemoteWebDriver();
@@ -47,76 +148,58 @@ public class WebDriverBuilder {
     }
 
     public WebDriver newWebDriver() {
-        ChromeOptions chromeOptions = getChromeOptions();
-        ChromeDriver driver = new ChromeDriver(chromeOptions);
+        Path profileCopy = profileTemplate != null ? ProfileTemplate.copy(profileTemplate) : null;
+        ChromeOptions chromeOptions = getChromeOptions(profileCopy != null ? profileCopy : userDataDirectory);
+        ChromeDriver driver;
 
-        permissionsTest(driver);
-        rttTest(driver);
-        pluginsTest(driver);
-        mimetest(driver);
-        chromeObjectTest(driver);
+        try {
+            driver = profileCopy == null ? new ChromeDriver(chromeOptions) : new ChromeDriver(chromeOptions) {
+                @Override
+                public void quit() {
+                    try {
+                        super.quit();
+                    } finally {
+                        ProfileTemplate.delete(profileCopy);
+                    }
+                }
+            };
+        } catch (RuntimeException e) {
+            if (profileCopy != null) {
+                ProfileTemplate.delete(profileCopy);
+            }
+            throw e;
+        }
 
-        setScreen(driver);
+        try {
+            permissionsTest(driver);
+            prepareTab(driver);
 
-        long timeoutMillisEnd = System.currentTimeMillis() + TIMEOUT.toMillis();
-        driver.manage().timeouts().pageLoadTimeout(Duration.ofMillis(timeoutMillisEnd - System.currentTimeMillis()));
+            long timeoutMillisEnd = System.currentTimeMillis() + timeout.toMillis();
+            driver.manage().timeouts().pageLoadTimeout(Duration.ofMillis(timeoutMillisEnd - System.currentTimeMillis()));
+        } catch (RuntimeException e) {
+            driver.quit();
+            throw e;
+        }
 
         return driver;
     }
 
-    private void chromeObjectTest(ChromeDriver driver) {
-        // Pass Chrome object test
-        driver.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
-                Map.of("source",
-                        "window.chrome = {runtime: {},};"));
-    }
-
-    private void mimetest(ChromeDriver driver) {
-        // Pass mime test
-        driver.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
-                Map.of("source",
-                        "Object.defineProperty(navigator, 'mimeTypes', { " +
-                                "get: () => { " +
-                                "       var mime = {};" +
-                                "       mime.__proto__ = MimeType.prototype;" +
-                                "       var mimes = {" +
-                                "           0: mime," +
-                                "           length: 1," +
-                                "           __proto__: MimeTypeArray.prototype," +
-                                "       };" +
-                                "       return mimes;" +
-                                "   }, " +
-                                "});"));
-    }
+    /**
+     * Injects the stealth script and blocks the urls of the lean profile in the current tab only,
+     * because Chrome applies these commands per tab. Every tab opened later must be prepared again
+     * before it loads a page. Does nothing for drivers without DevTools access, e.g. remote ones.
+     */
+    void prepareTab(WebDriver driver) {
+        if (!(driver instanceof HasCdp cdp)) {
+            return;
+        }
 
-    private void pluginsTest(ChromeDriver driver) {
-        // Pass plugins prototype test
-        driver.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
-                Map.of("source",
-                        "Object.defineProperty(navigator, 'plugins', { " +
-                                "get: () => { " +
-                                "       var ChromiumPDFPlugin = {};" +
-                                "       ChromiumPDFPlugin.__proto__ = Plugin.prototype;"
-                                +
-                                "       var plugins = {" +
-                                "           0: ChromiumPDFPlugin," +
-                                "           description: 'Portable Document Format'," +
-                                "           filename: 'internal-pdf-viewer'," +
-                                "           length: 1," +
-                                "           name: 'Chromium PDF Plugin'," +
-                                "           __proto__: PluginArray.prototype," +
-                                "       };" +
-                                "       return plugins;" +
-                                "   }, " +
-                                "});"));
-    }
+        cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", STEALTH_SCRIPT));
 
-    private void rttTest(ChromeDriver driver) {
-        // Pass rtt test
-        driver.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
-                Map.of("source",
-                        "Object.defineProperty(navigator, 'maxTouchPoints', {get: () => 1}); " +
-                                "Object.defineProperty(navigator.connection, 'rtt', {get: () => 100});"));
+        if (leanProfile && !blockedUrls.isEmpty()) {
+            cdp.executeCdpCommand("Network.enable", Map.of());
+            cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", blockedUrls));
+        }
     }
 
     private void permissionsTest(ChromeDriver driver) {
@@ -126,7 +209,7 @@ public class WebDriverBuilder {
         driver.executeCdpCommand("Browser.grantPermissions", params);
     }
 
-    private ChromeOptions getChromeOptions() {
+    private ChromeOptions getChromeOptions(Path userDataDirectory) {
         ChromeOptions chromeOptions = new ChromeOptions();
 
         if (headless) {
@@ -135,9 +218,20 @@ public class WebDriverBuilder {
 
         chromeOptions.addArguments("--disable-gpu", "--window-size=1920,1080");
         chromeOptions.addArguments("--disable-blink-features=AutomationControlled");
+        // Tabs in the background must keep translating at full speed
+        chromeOptions.addArguments("--disable-background-timer-throttling", "--disable-renderer-backgrounding",
+                "--disable-backgrounding-occluded-windows");
+
+        if (userAgent != null) {
+            chromeOptions.addArguments("--user-agent=" + userAgent);
+        }
+
+        if (userDataDirectory != null) {
+            chromeOptions.addArguments("--user-data-dir=" + userDataDirectory.toAbsolutePath());
+        }
 
-        if (USER_AGENT != null) {
-            chromeOptions.addArguments("--user-agent=" + USER_AGENT);
+        if (leanProfile) {
+            chromeOptions.addArguments(LEAN_ARGUMENTS);
         }
         return chromeOptions;
     }
@@ -147,29 +241,65 @@ public class WebDriverBuilder {
      */
     private WebDriver newRemoteWebDriver() {
         ChromeOptions chromeOptions = new ChromeOptions();
+
+        // The block list needs DevTools access, which a remote driver doesn't offer
+        if (leanProfile) {
+            chromeOptions.addArguments(LEAN_ARGUMENTS);
+        }
+
         RemoteWebDriver driver = null;
         try {
-            driver = new RemoteWebDriver(new URL(REMOTE_WEBDRIVER_URL), chromeOptions);
+            driver = new RemoteWebDriver(new URL(remoteWebDriverUrl), chromeOptions);
         } catch (MalformedURLException e) {
             e.printStackTrace();
-            throw new RuntimeException("Invalid chrome remote url " + REMOTE_WEBDRIVER_URL);
+            throw new RuntimeException("Invalid chrome remote url " + remoteWebDriverUrl);
         }
         return driver;
     }
 
-    private static void setScreen(ChromeDriver driver) {
-        (driver).executeScript(
-                "Object.defineProperty(screen, 'height', {value: 1080, configurable: true, writeable: true});");
-        (driver).executeScript(
-                "Object.defineProperty(screen, 'width', {value: 1920, configurable: true, writeable: true});");
-        (driver).executeScript(
-                "Object.defineProperty(screen, 'availWidth', {value: 1920, configurable: true, writeable: true});");
-        (driver).executeScript(
-                "Object.defineProperty(screen, 'availHeight', {value: 1080, configurable: true, writeable: true});");
-    }
-
     public WebDriverBuilder headless(boolean headless) {
         this.headless = headless;
         return this;
     }
+
+    /**
+     * Turns off Chrome features which are not needed to translate and blocks the given urls.
+     */
+    public WebDriverBuilder leanProfile(boolean leanProfile, List<String> blockedUrls) {
+        this.leanProfile = leanProfile;
+        this.blockedUrls = blockedUrls;
+        return this;
+    }
+
+    public WebDriverBuilder remoteWebDriverUrl(String remoteWebDriverUrl) {
+        this.remoteWebDriverUrl = remoteWebDriverUrl;
+        return this;
+    }
+
+    public WebDriverBuilder userAgent(String userAgent) {
+        this.userAgent = userAgent;
+        return this;
+    }
+
+    public WebDriverBuilder timeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Uses the given user data directory directly. Only one browser instance can use it at a time.
+     */
+    public WebDriverBuilder userDataDirectory(Path userDataDirectory) {
+        this.userDataDirectory = userDataDirectory;
+        return this;
+    }
+
+    /**
+     * Starts the browser instance with a copy of the given user data directory, which is deleted when it quits.
+     * Is ignored for remote browser instances.
+     */
+    public WebDriverBuilder profileTemplate(Path profileTemplate) {
+        this.profileTemplate = profileTemplate;
+        return this;
+    }
 }
@@ -0,0 +1,529 @@
+package de.linus.deepltranslator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.TimeoutException;
+
+/**
+ * A bounded pool of browser instances, or of tabs if a browser instance hosts several of them.
+ * <p>
+ * </p>
+ * At most {@link DeepLConfiguration#getMaxPoolSize()} browsers are started.
+ * If all of them are busy, callers wait until one is released, and if already
+ * {@link DeepLConfiguration#getMaxQueuedRequests()} callers are waiting,
+ * further callers are rejected.
+ * <p>
+ * </p>
+ * Idle browser instances which are already set to the requested language pair
+ * are preferred, so that the language selection can be skipped.
+ * <p>
+ * </p>
+ * Browser instances which are due for retirement are replaced in the background. The replacement is started
+ * first and the old instance is only quit once the replacement is ready, so the pool never shrinks meanwhile.
+ */
+class WebDriverPool {
+
+    private final int minSize;
+    private final int maxSize;
+    private final int maxQueued;
+
+    /**
+     * Starts a new browser instance or opens a new tab, with the DeepL site loaded.
+     */
+    private final Supplier<PooledDriver> factory;
+
+    /**
+     * Decides on release and on checkout whether a browser instance should be replaced.
+     */
+    private final Predicate<PooledDriver> retirementPolicy;
+
+    /**
+     * For starting browser instances in the background.
+     */
+    private final Executor executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Callers waiting for a browser instance. They are handed an idle instance, or null as the permission
+     * to start a new one.
+     */
+    private final PriorityWaiters<PooledDriver> waiters = new PriorityWaiters<>(lock);
+
+    /**
+     * Browser instances ready to be used.
+     */
+    private final Deque<PooledDriver> idle = new ArrayDeque<>();
+
+    /**
+     * Number of browser instances which are idle, busy or still starting.
+     */
+    private int total;
+
+    private boolean closed;
+
+    /**
+     * Hits and misses of the language pair affinity.
+     */
+    private final Map<LanguagePair, AffinityCounter> affinityCounters = new ConcurrentHashMap<>();
+
+    WebDriverPool(DeepLConfiguration configuration, Supplier<PooledDriver> factory,
+            Predicate<PooledDriver> retirementPolicy, Executor executor) {
+        this(configuration.getMinPoolSize(), configuration.getMaxPoolSize(), configuration.getMaxQueuedRequests(),
+                factory, retirementPolicy, executor);
+    }
+
+    WebDriverPool(int minSize, int maxSize, int maxQueued, Supplier<PooledDriver> factory, Executor executor) {
+        this(minSize, maxSize, maxQueued, factory, pooledDriver -> false, executor);
+    }
+
+    WebDriverPool(int minSize, int maxSize, int maxQueued, Supplier<PooledDriver> factory,
+            Predicate<PooledDriver> retirementPolicy, Executor executor) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxQueued = maxQueued;
+        this.factory = factory;
+        this.retirementPolicy = retirementPolicy;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts browser instances in the background until the minimum pool size is reached.
+     */
+    void warmUp() {
+        int missing;
+
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+
+            missing = Math.max(0, minSize - total);
+            total += missing;
+        } finally {
+            lock.unlock();
+        }
+
+        for (int i = 0; i < missing; i++) {
+            executor.execute(() -> {
+                PooledDriver pooledDriver;
+
+                try {
+                    pooledDriver = create();
+                } catch (RuntimeException e) {
+                    lock.lock();
+                    try {
+                        total--;
+                        dispatch();
+                    } finally {
+                        lock.unlock();
+                    }
+                    return;
+                }
+
+                release(pooledDriver);
+            });
+        }
+    }
+
+    /**
+     * @see WebDriverPool#acquire(LanguagePair, TranslationRequest, long)
+     */
+    PooledDriver acquire(long timeoutMillisEnd) throws TimeoutException, RejectedExecutionException {
+        return acquire(null, new TranslationRequest(TranslationPriority.NORMAL), timeoutMillisEnd);
+    }
+
+    /**
+     * Returns an idle browser instance, starts a new one if the pool isn't full yet
+     * or waits until another caller releases one.
+     * <p>
+     * </p>
+     * An idle instance already set to the given language pair is preferred over any other idle instance.
+     * Released instances are handed to the waiting caller with the highest priority, preferring a caller
+     * of that priority which requested the language pair the instance is set to.
+     *
+     * @param languagePair the requested languages or null if there is no preference
+     * @throws TimeoutException if no browser instance became available until the given time
+     * @throws RejectedExecutionException if too many callers are already waiting or the pool is closed
+     * @throws CancellationException if the request was cancelled while waiting
+     */
+    PooledDriver acquire(LanguagePair languagePair, TranslationRequest request, long timeoutMillisEnd)
+            throws TimeoutException, RejectedExecutionException, CancellationException {
+        PooledDriver pooledDriver = acquireDriver(languagePair, request, timeoutMillisEnd);
+
+        if (languagePair != null) {
+            AffinityCounter counter = affinityCounters.computeIfAbsent(languagePair, key -> new AffinityCounter());
+
+            if (languagePair.equals(pooledDriver.getLanguagePair())) {
+                counter.hits.increment();
+            } else {
+                counter.misses.increment();
+            }
+        }
+
+        return pooledDriver;
+    }
+
+    private PooledDriver acquireDriver(LanguagePair languagePair, TranslationRequest request,
+            long timeoutMillisEnd) {
+        PooledDriver idleDriver;
+        boolean retire = false;
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("Driver pool is closed");
+            }
+
+            // Idle instances and free slots are handed to waiting callers first, so nobody is overtaken here
+            idleDriver = pollIdle(languagePair);
+
+            if (idleDriver != null) {
+                // An idle instance may have become too old since it was released
+                retire = startRetirement(idleDriver);
+            } else if (total < maxSize) {
+                total++;
+            } else {
+                PooledDriver pooledDriver = await(languagePair, request, timeoutMillisEnd);
+
+                if (pooledDriver != null) {
+                    return pooledDriver;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (idleDriver != null) {
+            if (retire) {
+                executor.execute(() -> replace(idleDriver));
+            }
+
+            return idleDriver;
+        }
+
+        // A slot was reserved, start the browser outside of the lock
+        try {
+            return create();
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until a browser instance or a free slot is handed to the caller.
+     *
+     * @return the browser instance, or null if a slot was reserved for a new instance
+     */
+    private PooledDriver await(LanguagePair languagePair, TranslationRequest request, long timeoutMillisEnd) {
+        if (waiters.size() >= maxQueued) {
+            throw new RejectedExecutionException("Too many requests waiting for a browser instance");
+        }
+
+        PriorityWaiters.Waiter<PooledDriver> waiter = waiters.add(request, languagePair);
+
+        try {
+            while (!waiter.isGranted()) {
+                if (closed) {
+                    throw new RejectedExecutionException("Driver pool is closed");
+                }
+
+                long remaining = timeoutMillisEnd - System.currentTimeMillis();
+
+                if (remaining <= 0) {
+                    throw new TimeoutException("Timed out waiting for a browser instance");
+                }
+
+                try {
+                    waiter.await(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TimeoutException("Interrupted while waiting for a browser instance", e);
+                }
+            }
+
+            return waiter.getValue();
+        } catch (RuntimeException e) {
+            // Cancelled or interrupted right after the grant, before this thread could take it
+            if (waiter.isGranted()) {
+                giveBack(waiter.getValue());
+            }
+            throw e;
+        } finally {
+            if (!waiter.isGranted()) {
+                waiters.remove(waiter);
+            }
+        }
+    }
+
+    /**
+     * Takes back what was granted to a waiter which gave up anyway, so that neither the browser instance
+     * nor the reserved slot is lost.
+     */
+    private void giveBack(PooledDriver pooledDriver) {
+        if (pooledDriver == null) {
+            total--;
+        } else if (closed) {
+            total--;
+            executor.execute(() -> destroy(pooledDriver));
+        } else {
+            idle.offerFirst(pooledDriver);
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Hands idle browser instances and free slots to the waiting callers, by priority.
+     */
+    private void dispatch() {
+        while (!closed && !waiters.isEmpty() && (!idle.isEmpty() || total < maxSize)) {
+            if (!idle.isEmpty()) {
+                PooledDriver pooledDriver = idle.pollFirst();
+                waiters.poll(pooledDriver.getLanguagePair()).grant(pooledDriver);
+            } else {
+                total++;
+                waiters.poll().grant(null);
+            }
+        }
+    }
+
+    /**
+     * Removes the most recently used idle instance set to the given language pair,
+     * or otherwise the least recently used idle instance.
+     */
+    private PooledDriver pollIdle(LanguagePair languagePair) {
+        if (languagePair == null) {
+            return idle.pollFirst();
+        }
+
+        Iterator<PooledDriver> iterator = idle.iterator();
+
+        while (iterator.hasNext()) {
+            PooledDriver pooledDriver = iterator.next();
+
+            if (languagePair.equals(pooledDriver.getLanguagePair())) {
+                iterator.remove();
+                return pooledDriver;
+            }
+        }
+
+        return idle.pollLast();
+    }
+
+    /**
+     * Hands a browser instance back to the pool.
+     */
+    void release(PooledDriver pooledDriver) {
+        boolean retire = false;
+        boolean quit = false;
+
+        lock.lock();
+        try {
+            if (!closed && !pooledDriver.isReplaced()) {
+                retire = startRetirement(pooledDriver);
+                idle.offerFirst(pooledDriver);
+                dispatch();
+            } else {
+                total--;
+                dispatch();
+                quit = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (retire) {
+            executor.execute(() -> replace(pooledDriver));
+        } else if (quit) {
+            destroy(pooledDriver);
+        }
+    }
+
+    /**
+     * Marks the browser instance as retiring if it is due for retirement and reserves a slot for its replacement.
+     */
+    private boolean startRetirement(PooledDriver pooledDriver) {
+        if (pooledDriver.isRetiring() || !retirementPolicy.test(pooledDriver)) {
+            return false;
+        }
+
+        // The replacement may exceed the maximum size until the old instance is quit
+        pooledDriver.setRetiring(true);
+        total++;
+        return true;
+    }
+
+    /**
+     * Starts a replacement for the browser instance, then quits the old instance
+     * right away if it is idle or otherwise as soon as it is released.
+     */
+    private void replace(PooledDriver old) {
+        PooledDriver replacement;
+
+        try {
+            replacement = create();
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                old.setRetiring(false);
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        boolean wasIdle;
+
+        lock.lock();
+        try {
+            old.setReplaced(true);
+            wasIdle = idle.remove(old);
+
+            if (wasIdle) {
+                total--;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (wasIdle) {
+            destroy(old);
+        }
+
+        release(replacement);
+    }
+
+    /**
+     * Quits a broken browser instance and starts a replacement
+     * if the pool dropped below its minimum size.
+     */
+    void discard(PooledDriver pooledDriver) {
+        lock.lock();
+        try {
+            total--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+
+        destroy(pooledDriver);
+        warmUp();
+    }
+
+    /**
+     * Quits all idle browser instances. Busy instances are quit when released.
+     */
+    void close() {
+        List<PooledDriver> drivers;
+
+        lock.lock();
+        try {
+            closed = true;
+            drivers = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            waiters.wakeAll();
+        } finally {
+            lock.unlock();
+        }
+
+        drivers.forEach(this::destroy);
+    }
+
+    /**
+     * Number of browser instances ready to be used.
+     */
+    int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of browser instances which are started, whether idle or busy.
+     */
+    int getTotalCount() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of callers waiting for a browser instance.
+     */
+    int getQueuedCount() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of callers of the given priority waiting for a browser instance.
+     */
+    int getQueuedCount(TranslationPriority priority) {
+        lock.lock();
+        try {
+            return waiters.size(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hits and misses of the language pair affinity, one entry per requested language pair.
+     */
+    List<LanguagePairStatistics> getLanguagePairStatistics() {
+        List<LanguagePairStatistics> statistics = new ArrayList<>();
+        affinityCounters.forEach((languagePair, counter) -> statistics.add(new LanguagePairStatistics(
+                languagePair.from(), languagePair.to(), counter.hits.sum(), counter.misses.sum())));
+        return statistics;
+    }
+
+    private PooledDriver create() {
+        return factory.get();
+    }
+
+    private void destroy(PooledDriver pooledDriver) {
+        try {
+            pooledDriver.close();
+        } catch (RuntimeException ignore) {}
+    }
+
+    private static class AffinityCounter {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
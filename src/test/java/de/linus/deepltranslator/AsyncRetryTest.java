@@ -0,0 +1,46 @@
+package de.linus.deepltranslator;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.TimeoutException;
+
+public class AsyncRetryTest {
+
+    @Test
+    public void testRetryAfterAwaitTermination() throws Exception {
+        DeepLConfiguration configuration = new DeepLConfiguration.Builder()
+                .setMinPoolSize(0)
+                .setRepetitionsDelay(retryNumber -> Duration.ofMillis(10))
+                .build();
+        AtomicInteger attempts = new AtomicInteger();
+
+        DeepLTranslator translator = new DeepLTranslator(configuration) {
+            @Override
+            String getTranslation(String text, SourceLanguage from, TargetLanguage to, TranslationRequest request) {
+                if (attempts.incrementAndGet() > 1) {
+                    return "Hallo";
+                }
+
+                // Time out only once the translator is shutting down
+                while (!executor.isShutdown()) {
+                    Thread.onSpinWait();
+                }
+
+                throw new TimeoutException("Forced timeout");
+            }
+        };
+
+        CompletableFuture<String> translation = translator.translateAsync("Hello", SourceLanguage.ENGLISH,
+                TargetLanguage.GERMAN);
+
+        Assertions.assertTrue(translator.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("Hallo", translation.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, attempts.get());
+        Assertions.assertEquals(1, ((MetricsRegistry) configuration.getMetrics()).getCount(TranslationEvent.RETRY));
+    }
+}
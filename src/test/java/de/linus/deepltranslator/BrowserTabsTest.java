@@ -0,0 +1,147 @@
+package de.linus.deepltranslator;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+public class BrowserTabsTest {
+
+    private final List<FakeBrowser> browsers = new ArrayList<>();
+
+    /**
+     * Remembers the window handles of its tabs and which of them is current.
+     */
+    private class FakeBrowser {
+        private final AtomicInteger windows = new AtomicInteger(1);
+        private final List<String> log = new ArrayList<>();
+        private String current = "tab-0";
+        private boolean quit;
+
+        private final WebDriver driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] { WebDriver.class, HasCdp.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "getWindowHandle" -> current;
+                    case "executeCdpCommand" -> {
+                        log.add(args[0] + " " + current);
+                        yield Map.of();
+                    }
+                    case "switchTo" -> targetLocator();
+                    case "close" -> log.add("close " + current);
+                    case "quit" -> quit = true;
+                    case "getTitle" -> log.add("title " + current) ? current : null;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> null;
+                });
+
+        private WebDriver.TargetLocator targetLocator() {
+            return (WebDriver.TargetLocator) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class[] { WebDriver.TargetLocator.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "newWindow" -> current = "tab-" + windows.getAndIncrement();
+                            case "window" -> current = (String) args[0];
+                            default -> {}
+                        }
+                        return driver;
+                    });
+        }
+    }
+
+    private synchronized WebDriver startBrowser() {
+        FakeBrowser browser = new FakeBrowser();
+        browsers.add(browser);
+        return browser.driver;
+    }
+
+    @Test
+    public void testTabsShareBrowsers() {
+        BrowserTabs tabs = new BrowserTabs(2, this::startBrowser, driver -> {});
+        PooledDriver first = tabs.open();
+        PooledDriver second = tabs.open();
+        PooledDriver third = tabs.open();
+
+        Assertions.assertEquals(2, browsers.size());
+
+        // Every command is sent to the tab it was issued by
+        first.getDriver().getTitle();
+        second.getDriver().getTitle();
+        first.getDriver().getTitle();
+        Assertions.assertEquals(List.of("title tab-0", "title tab-1", "title tab-0"), browsers.get(0).log);
+
+        first.close();
+        Assertions.assertFalse(browsers.get(0).quit);
+        Assertions.assertEquals("close tab-0", browsers.get(0).log.get(3));
+
+        second.close();
+        third.close();
+        Assertions.assertTrue(browsers.get(0).quit);
+        Assertions.assertTrue(browsers.get(1).quit);
+    }
+
+    @Test
+    public void testClosedTabIsReused() {
+        BrowserTabs tabs = new BrowserTabs(2, this::startBrowser, driver -> {});
+        tabs.open();
+        tabs.open().close();
+        tabs.open();
+
+        Assertions.assertEquals(1, browsers.size());
+    }
+
+    @Test
+    public void testConcurrentOpensShareStartingBrowser() throws Exception {
+        CountDownLatch startable = new CountDownLatch(1);
+        BrowserTabs tabs = new BrowserTabs(4, () -> {
+            try {
+                startable.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return startBrowser();
+        }, driver -> {});
+        List<CompletableFuture<PooledDriver>> opened = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture<PooledDriver> tab = new CompletableFuture<>();
+            Thread thread = new Thread(() -> tab.complete(tabs.open()));
+            thread.start();
+            opened.add(tab);
+            threads.add(thread);
+        }
+
+        // Every caller waits, either for the browser to start or for the caller starting it
+        while (threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+            Thread.sleep(1);
+        }
+
+        startable.countDown();
+
+        for (CompletableFuture<PooledDriver> tab : opened) {
+            tab.get(5, TimeUnit.SECONDS);
+        }
+
+        Assertions.assertEquals(1, browsers.size());
+        Assertions.assertEquals(4, browsers.get(0).windows.get());
+    }
+
+    @Test
+    public void testNewTabIsPrepared() {
+        WebDriverBuilder builder = WebDriverBuilder.builder().leanProfile(true, List.of("*.png"));
+        BrowserTabs tabs = new BrowserTabs(2, this::startBrowser, builder::prepareTab);
+        tabs.open();
+        tabs.open();
+
+        Assertions.assertTrue(browsers.get(0).log.contains("Network.setBlockedURLs tab-1"));
+        Assertions.assertTrue(browsers.get(0).log.contains("Page.addScriptToEvaluateOnNewDocument tab-1"));
+    }
+}
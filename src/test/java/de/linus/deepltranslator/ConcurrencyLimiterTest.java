@@ -0,0 +1,85 @@
+package de.linus.deepltranslator;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.TimeoutException;
+
+public class ConcurrencyLimiterTest {
+
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final TranslationRequest request = new TranslationRequest(TranslationPriority.NORMAL);
+
+    /**
+     * Runs a window of translations, each with the given number of translations running at the same time.
+     */
+    private void runWindow(ConcurrencyLimiter limiter, int concurrency, boolean timedOut, long latencyNanos) {
+        for (int i = 0; i < ConcurrencyLimiter.MIN_WINDOW_SAMPLES; i++) {
+            for (int j = 0; j < concurrency; j++) {
+                limiter.acquire(request, System.currentTimeMillis() + 1000);
+            }
+
+            limiter.release(timedOut, latencyNanos);
+
+            for (int j = 1; j < concurrency; j++) {
+                limiter.release();
+            }
+        }
+    }
+
+    @Test
+    public void testReachedLimitIncreases() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 4, 0, metrics);
+        runWindow(limiter, 1, false, 1_000_000);
+
+        Assertions.assertEquals(2, limiter.getLimit());
+        Assertions.assertEquals(1, metrics.getCount(TranslationEvent.CONCURRENCY_LIMIT_INCREASED));
+
+        runWindow(limiter, 1, false, 1_000_000);
+
+        Assertions.assertEquals(2, limiter.getLimit(), "A limit which wasn't reached must not grow");
+    }
+
+    @Test
+    public void testLimitNeverExceedsMaximum() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 2, 0, metrics);
+        runWindow(limiter, 2, false, 1_000_000);
+
+        Assertions.assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void testTimeoutsHalveLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 4, 0, metrics);
+        runWindow(limiter, 1, true, 0);
+
+        Assertions.assertEquals(2, limiter.getLimit());
+        Assertions.assertEquals(1, metrics.getCount(TranslationEvent.CONCURRENCY_LIMIT_TIMEOUT_DECREASED));
+    }
+
+    @Test
+    public void testSlowTranslationsDecreaseLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 4, 0, metrics);
+        runWindow(limiter, 1, false, 1_000_000);
+        runWindow(limiter, 1, false, 10_000_000);
+
+        Assertions.assertEquals(3, limiter.getLimit());
+        Assertions.assertEquals(1, metrics.getCount(TranslationEvent.CONCURRENCY_LIMIT_LATENCY_DECREASED));
+    }
+
+    @Test
+    public void testWaitsForLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1, metrics);
+        limiter.acquire(request, System.currentTimeMillis() + 1000);
+
+        Assertions.assertThrows(TimeoutException.class,
+                () -> limiter.acquire(request, System.currentTimeMillis() + 50));
+
+        ConcurrencyLimiter noQueue = new ConcurrencyLimiter(1, 1, 0, metrics);
+        noQueue.acquire(request, System.currentTimeMillis() + 1000);
+
+        Assertions.assertThrows(RejectedExecutionException.class,
+                () -> noQueue.acquire(request, System.currentTimeMillis() + 1000));
+    }
+}
@@ -0,0 +1,74 @@
+package de.linus.deepltranslator;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+public class ElementCacheTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    /**
+     * The first element returned goes stale as soon as it is clicked.
+     */
+    private WebDriver fakeDriver(int elementCount) {
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { WebDriver.class },
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findElements")) {
+                        return null;
+                    }
+
+                    boolean stale = lookups.getAndIncrement() == 0;
+                    return IntStream.range(0, elementCount)
+                            .mapToObj(i -> fakeElement(stale))
+                            .toList();
+                });
+    }
+
+    private WebElement fakeElement(boolean stale) {
+        return (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { WebElement.class },
+                (proxy, method, args) -> {
+                    if (stale && method.getName().equals("click")) {
+                        throw new StaleElementReferenceException("stale");
+                    }
+
+                    return method.getName().equals("getText") ? "text" : null;
+                });
+    }
+
+    @Test
+    public void testLookUpOnce() {
+        ElementCache elements = new ElementCache(fakeDriver(1));
+        By locator = By.id("target-dummydiv");
+
+        Assertions.assertEquals("text", elements.apply(locator, WebElement::getText));
+        Assertions.assertEquals("text", elements.apply(locator, WebElement::getText));
+        Assertions.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testStaleElementIsLookedUpAgain() {
+        ElementCache elements = new ElementCache(fakeDriver(2));
+        By locator = By.className("lmt__language_select__active");
+
+        elements.run(locator, 1, WebElement::click);
+        elements.run(locator, 1, WebElement::click);
+        Assertions.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void testMissingElement() {
+        ElementCache elements = new ElementCache(fakeDriver(1));
+
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> elements.run(By.className("lmt__language_select__active"), 1, WebElement::click));
+    }
+}
@@ -0,0 +1,68 @@
+package de.linus.deepltranslator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class InFlightTranslationsTest {
+
+    @Test
+    public void testIdenticalRequestsShareTranslation() {
+        InFlightTranslations inFlight = new InFlightTranslations();
+        CompletableFuture<String> translation = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<String> first = inFlight.join("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, () -> {
+            started.incrementAndGet();
+            return translation;
+        });
+        CompletableFuture<String> second = inFlight.join("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, () -> {
+            started.incrementAndGet();
+            return translation;
+        });
+
+        second.cancel(true);
+        translation.complete("Hallo");
+
+        Assertions.assertEquals("Hallo", first.join());
+        Assertions.assertEquals(1, started.get());
+        Assertions.assertEquals(1, inFlight.getDeduplicatedCount());
+        Assertions.assertEquals(0, inFlight.size());
+    }
+
+    @Test
+    public void testTranslationIsCancelledWhenAllCallersLeft() {
+        InFlightTranslations inFlight = new InFlightTranslations();
+        CompletableFuture<String> translation = new CompletableFuture<>();
+        AtomicInteger cancelled = new AtomicInteger();
+
+        CompletableFuture<String> first = inFlight.join("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN,
+                () -> translation, cancelled::incrementAndGet);
+        CompletableFuture<String> second = inFlight.join("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN,
+                () -> translation, cancelled::incrementAndGet);
+
+        first.cancel(true);
+
+        Assertions.assertEquals(0, cancelled.get(), "Another caller still waits for the translation");
+        Assertions.assertEquals(1, inFlight.size());
+
+        second.cancel(true);
+
+        Assertions.assertEquals(1, cancelled.get());
+        Assertions.assertEquals(0, inFlight.size());
+    }
+
+    @Test
+    public void testFailureIsRemoved() {
+        InFlightTranslations inFlight = new InFlightTranslations();
+        CompletableFuture<String> failed = inFlight.join("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN,
+                () -> CompletableFuture.failedFuture(new IllegalStateException()));
+
+        Assertions.assertTrue(failed.isCompletedExceptionally());
+        Assertions.assertEquals(0, inFlight.size());
+        Assertions.assertEquals("Hallo", inFlight.join("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN,
+                () -> CompletableFuture.completedFuture("Hallo")).join());
+    }
+}
@@ -0,0 +1,86 @@
+package de.linus.deepltranslator;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testPhasePercentiles() {
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        for (int i = 0; i < 99; i++) {
+            metrics.recordPhase(TranslationPhase.WAITING, Duration.ofMillis(40));
+        }
+        metrics.recordPhase(TranslationPhase.WAITING, Duration.ofSeconds(3));
+
+        Assertions.assertEquals(100, metrics.getCount(TranslationPhase.WAITING));
+        Assertions.assertEquals(0, metrics.getCount(TranslationPhase.TYPING));
+        Assertions.assertEquals(Duration.ofMillis(50), metrics.getPercentile(TranslationPhase.WAITING, 50));
+        Assertions.assertEquals(Duration.ofMillis(5000), metrics.getPercentile(TranslationPhase.WAITING, 100));
+    }
+
+    @Test
+    public void testDurationOnBucketBound() {
+        MetricsRegistry metrics = new MetricsRegistry("test");
+        metrics.recordPhase(TranslationPhase.TYPING, Duration.ofMillis(50));
+        metrics.recordPhase(TranslationPhase.TYPING, Duration.ofMillis(50).plusNanos(1));
+
+        String text = metrics.toPrometheusText();
+
+        Assertions.assertEquals(Duration.ofMillis(50), metrics.getPercentile(TranslationPhase.TYPING, 50));
+        Assertions.assertTrue(text.contains("test_phase_duration_seconds_bucket{phase=\"typing\",le=\"0.050000\"} 1\n"));
+        Assertions.assertTrue(text.contains("test_phase_duration_seconds_bucket{phase=\"typing\",le=\"0.100000\"} 2\n"));
+    }
+
+    @Test
+    public void testPrometheusText() {
+        MetricsRegistry metrics = new MetricsRegistry("test");
+        metrics.increment(TranslationEvent.RETRY);
+        metrics.registerGauge("pool_idle_drivers", "Idle.", () -> 2);
+        metrics.registerGauge("pool_idle_drivers", "Idle.", () -> 3);
+
+        String text = metrics.toPrometheusText();
+
+        Assertions.assertEquals(5, metrics.getGauge("pool_idle_drivers"));
+        Assertions.assertTrue(text.contains("test_retries_total 1\n"));
+        Assertions.assertTrue(text.contains("test_pool_idle_drivers 5\n"));
+        Assertions.assertTrue(text.contains("test_phase_duration_seconds_count{phase=\"waiting\"} 0\n"));
+    }
+
+    @Test
+    public void testUnregisterGauge() {
+        MetricsRegistry metrics = new MetricsRegistry("test");
+        Supplier<Integer> closed = () -> 2;
+        metrics.registerGauge("pool_idle_drivers", "Idle.", closed);
+        metrics.registerGauge("pool_idle_drivers", "Idle.", () -> 3);
+
+        metrics.unregisterGauge("pool_idle_drivers", closed);
+
+        Assertions.assertEquals(3, metrics.getGauge("pool_idle_drivers"));
+        Assertions.assertTrue(metrics.toPrometheusText().contains("test_pool_idle_drivers 3\n"));
+    }
+
+    @Test
+    public void testClosedTranslatorIsNotReported() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        DeepLConfiguration configuration = new DeepLConfiguration.Builder()
+                .setMinPoolSize(0)
+                .setMetrics(metrics)
+                .build();
+        DeepLTranslator open = new DeepLTranslator(configuration);
+        DeepLTranslator closed = new DeepLTranslator(configuration);
+
+        closed.close();
+
+        Assertions.assertFalse(DeepLTranslatorBase.TRANSLATOR_LIST.contains(closed));
+        Assertions.assertTrue(metrics.toPrometheusText().contains("deepl_pool_total_drivers 0\n"),
+                "The open translator must still be reported");
+
+        open.close();
+        Assertions.assertFalse(metrics.toPrometheusText().contains("deepl_pool_total_drivers"));
+    }
+}
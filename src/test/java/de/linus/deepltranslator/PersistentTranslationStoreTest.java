@@ -0,0 +1,195 @@
+package de.linus.deepltranslator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PersistentTranslationStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSurvivesRestart() {
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            store.put("Hello world", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Hallo Welt");
+            store.put("Hello world", SourceLanguage.ENGLISH, TargetLanguage.FRENCH, "Bonjour le monde");
+        }
+
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            Assertions.assertEquals("Hallo Welt", store.get("Hello world", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+            Assertions.assertEquals("Bonjour le monde", store.get("Hello world", SourceLanguage.ENGLISH, TargetLanguage.FRENCH));
+            Assertions.assertNull(store.get("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+        }
+    }
+
+    @Test
+    public void testOverwrite() {
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            store.put("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Hallo");
+            store.put("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Guten Tag");
+
+            Assertions.assertEquals("Guten Tag", store.get("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+            Assertions.assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    public void testLookupsBetweenAppends() {
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 64 << 20, false)) {
+            String padding = "x".repeat(200);
+
+            // Reads records from beyond the mapping as well as from a remapped log
+            for (int i = 0; i < 10_000; i++) {
+                store.put("Text " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN, padding + i);
+                Assertions.assertEquals(padding + i,
+                        store.get("Text " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+            }
+
+            Assertions.assertTrue(store.getLogLength() > 2 << 20);
+            Assertions.assertEquals(padding + 0, store.get("Text 0", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+        }
+    }
+
+    @Test
+    public void testTornWriteIsCutOff() throws IOException {
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            store.put("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Hallo");
+        }
+
+        Path logFile = directory.resolve(PersistentTranslationStore.LOG_FILE);
+        long validLength = Files.size(logFile);
+
+        // Simulate a crash during a write and a missing index
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 0, 0, 0, 9 }), validLength);
+        }
+        Files.delete(directory.resolve(PersistentTranslationStore.INDEX_FILE));
+
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            Assertions.assertEquals("Hallo", store.get("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+            Assertions.assertEquals(validLength, store.getLogLength());
+        }
+    }
+
+    @Test
+    public void testCompactionKeepsNewestWithinMaximumSize() throws IOException {
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 64 << 10, false)) {
+            for (int i = 0; i < 10_000; i++) {
+                store.put("Text " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Übersetzung " + i);
+            }
+
+            store.compact();
+
+            Assertions.assertTrue(store.getLogLength() <= 64 << 10);
+            Assertions.assertNull(store.get("Text 0", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+            Assertions.assertEquals("Übersetzung 9999", store.get("Text 9999", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+        }
+
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 64 << 10, false)) {
+            Assertions.assertEquals("Übersetzung 9999", store.get("Text 9999", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+        }
+    }
+
+    @Test
+    public void testCompactionWithStaleIndexCount() throws IOException {
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            for (int i = 0; i < 100; i++) {
+                store.put("Text " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Übersetzung " + i);
+            }
+        }
+
+        // Simulate an index whose header page wasn't flushed before a crash
+        try (FileChannel channel = FileChannel.open(directory.resolve(PersistentTranslationStore.INDEX_FILE),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), 12);
+        }
+
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            Assertions.assertEquals(100, store.size());
+
+            store.compact();
+
+            Assertions.assertEquals(100, store.size());
+            Assertions.assertEquals("Übersetzung 0", store.get("Text 0", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+        }
+    }
+
+    @Test
+    public void testPutsDuringCompactionAreKept() throws Exception {
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            for (int i = 0; i < 5000; i++) {
+                store.put("Text " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Übersetzung " + i);
+            }
+
+            CompletableFuture<Void> compaction = CompletableFuture.runAsync(() -> {
+                try {
+                    store.compact();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            for (int i = 0; i < 200; i++) {
+                store.put("Text " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Neu " + i);
+            }
+
+            compaction.get(10, TimeUnit.SECONDS);
+
+            for (int i = 0; i < 200; i++) {
+                Assertions.assertEquals("Neu " + i,
+                        store.get("Text " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+            }
+
+            Assertions.assertEquals(5000, store.size());
+        }
+
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            Assertions.assertEquals("Neu 199", store.get("Text 199", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+            Assertions.assertEquals(5000, store.size());
+        }
+    }
+
+    @Test
+    public void testFailedCompactionStopsPuts() throws IOException, InterruptedException {
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 4 << 10, false, metrics)) {
+            // The compacted log can't be created where a directory is in the way
+            Files.createDirectory(directory.resolve(PersistentTranslationStore.LOG_FILE + ".compact"));
+
+            for (int i = 0; i < 1000 && !store.isReadOnly(); i++) {
+                store.put("Text " + i, SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Übersetzung " + i);
+                Thread.sleep(1);
+            }
+
+            Assertions.assertTrue(store.isReadOnly());
+            Assertions.assertEquals(1, metrics.getCount(TranslationEvent.STORE_COMPACTION_FAILED));
+
+            long logLength = store.getLogLength();
+            store.put("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Hallo");
+
+            Assertions.assertEquals(logLength, store.getLogLength());
+            Assertions.assertNull(store.get("Hello", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+            Assertions.assertEquals("Übersetzung 0", store.get("Text 0", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+        }
+    }
+
+    @Test
+    public void testSecondInstanceIsRejected() {
+        try (PersistentTranslationStore store = new PersistentTranslationStore(directory, 1 << 20, false)) {
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> new PersistentTranslationStore(directory, 1 << 20, false));
+        }
+    }
+}
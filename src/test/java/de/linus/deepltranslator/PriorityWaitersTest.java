@@ -0,0 +1,90 @@
+package de.linus.deepltranslator;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PriorityWaitersTest {
+
+    private final PriorityWaiters<Void> waiters = new PriorityWaiters<>(new ReentrantLock());
+
+    @Test
+    public void testHighestPriorityFirst() {
+        waiters.add(new TranslationRequest(TranslationPriority.LOW));
+        waiters.add(new TranslationRequest(TranslationPriority.HIGH));
+        waiters.add(new TranslationRequest(TranslationPriority.NORMAL));
+
+        Assertions.assertEquals(1, waiters.size(TranslationPriority.HIGH));
+        Assertions.assertEquals(3, waiters.size());
+        Assertions.assertSame(TranslationPriority.HIGH, waiters.poll().getPriority());
+        Assertions.assertSame(TranslationPriority.NORMAL, waiters.poll().getPriority());
+        Assertions.assertSame(TranslationPriority.LOW, waiters.poll().getPriority());
+        Assertions.assertNull(waiters.poll());
+    }
+
+    @Test
+    public void testSamePriorityInArrivalOrder() {
+        PriorityWaiters.Waiter<Void> first = waiters.add(new TranslationRequest(TranslationPriority.NORMAL));
+        PriorityWaiters.Waiter<Void> second = waiters.add(new TranslationRequest(TranslationPriority.NORMAL));
+
+        Assertions.assertSame(first, waiters.poll());
+        Assertions.assertSame(second, waiters.poll());
+    }
+
+    @Test
+    public void testLowerPriorityDoesNotStarve() {
+        PriorityWaiters.Waiter<Void> low = waiters.add(new TranslationRequest(TranslationPriority.LOW));
+
+        for (int i = 0; i < PriorityWaiters.STARVATION_LIMIT; i++) {
+            waiters.add(new TranslationRequest(TranslationPriority.HIGH));
+            Assertions.assertNotSame(low, waiters.poll());
+        }
+
+        waiters.add(new TranslationRequest(TranslationPriority.HIGH));
+
+        Assertions.assertSame(low, waiters.poll());
+    }
+
+    @Test
+    public void testLanguagePairPreferredWithinPriority() {
+        LanguagePair englishGerman = new LanguagePair(SourceLanguage.ENGLISH, TargetLanguage.GERMAN);
+        LanguagePair englishFrench = new LanguagePair(SourceLanguage.ENGLISH, TargetLanguage.FRENCH);
+        PriorityWaiters.Waiter<Void> french = waiters.add(new TranslationRequest(TranslationPriority.NORMAL),
+                englishFrench);
+        PriorityWaiters.Waiter<Void> german = waiters.add(new TranslationRequest(TranslationPriority.NORMAL),
+                englishGerman);
+        PriorityWaiters.Waiter<Void> high = waiters.add(new TranslationRequest(TranslationPriority.HIGH),
+                englishFrench);
+
+        // A higher priority still goes first
+        Assertions.assertSame(high, waiters.poll(englishGerman));
+        Assertions.assertSame(german, waiters.poll(englishGerman));
+        Assertions.assertSame(french, waiters.poll(englishGerman));
+    }
+
+    @Test
+    public void testOvertakenWaiterDoesNotStarve() {
+        LanguagePair englishGerman = new LanguagePair(SourceLanguage.ENGLISH, TargetLanguage.GERMAN);
+        PriorityWaiters.Waiter<Void> first = waiters.add(new TranslationRequest(TranslationPriority.NORMAL));
+
+        for (int i = 0; i < PriorityWaiters.STARVATION_LIMIT; i++) {
+            waiters.add(new TranslationRequest(TranslationPriority.NORMAL), englishGerman);
+            Assertions.assertNotSame(first, waiters.poll(englishGerman));
+        }
+
+        waiters.add(new TranslationRequest(TranslationPriority.NORMAL), englishGerman);
+
+        Assertions.assertSame(first, waiters.poll(englishGerman));
+    }
+
+    @Test
+    public void testRemovedWaiterIsNotServed() {
+        PriorityWaiters.Waiter<Void> gaveUp = waiters.add(new TranslationRequest(TranslationPriority.HIGH));
+        PriorityWaiters.Waiter<Void> waiting = waiters.add(new TranslationRequest(TranslationPriority.LOW));
+        waiters.remove(gaveUp);
+
+        Assertions.assertSame(waiting, waiters.poll());
+        Assertions.assertTrue(waiters.isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package de.linus.deepltranslator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProfileTemplateTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSeedOnce() {
+        Path template = directory.resolve("template");
+        AtomicInteger seeded = new AtomicInteger();
+
+        ProfileTemplate.seed(template, seeded::incrementAndGet);
+        ProfileTemplate.seed(template, seeded::incrementAndGet);
+
+        Assertions.assertEquals(1, seeded.get());
+    }
+
+    @Test
+    public void testCopySkipsLocks() throws IOException {
+        Path template = directory.resolve("template");
+        ProfileTemplate.seed(template, () -> {
+            try {
+                Files.createDirectories(template.resolve("Default/Cache"));
+                Files.writeString(template.resolve("Default/Cookies"), "cookies");
+                Files.writeString(template.resolve("SingletonLock"), "lock");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        Path copy = ProfileTemplate.copy(template);
+
+        Assertions.assertEquals("cookies", Files.readString(copy.resolve("Default/Cookies")));
+        Assertions.assertTrue(Files.isDirectory(copy.resolve("Default/Cache")));
+        Assertions.assertFalse(Files.exists(copy.resolve("SingletonLock")));
+
+        ProfileTemplate.delete(copy);
+        Assertions.assertFalse(Files.exists(copy));
+    }
+}
@@ -0,0 +1,51 @@
+package de.linus.deepltranslator;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TextBatchTest {
+
+    @Test
+    public void testPackRespectsMaxLength() {
+        List<TextBatch> batches = TextBatch.pack(List.of("aaaa", "bbbb", "cccc"), 10);
+
+        Assertions.assertEquals(2, batches.size());
+        Assertions.assertEquals("aaaa\n\nbbbb", batches.get(0).getText());
+        Assertions.assertEquals(List.of(0, 1), batches.get(0).getIndices());
+        Assertions.assertEquals(List.of(2), batches.get(1).getIndices());
+    }
+
+    @Test
+    public void testTextWithBlankLineIsNotPacked() {
+        List<TextBatch> batches = TextBatch.pack(List.of("a", "b\n\nc", "d"), 5000);
+
+        Assertions.assertEquals(2, batches.size());
+        Assertions.assertEquals(List.of(0, 2), batches.get(0).getIndices());
+        Assertions.assertEquals(List.of(1), batches.get(1).getIndices());
+        Assertions.assertEquals(List.of("x\n\ny"), batches.get(1).split("x\n\ny"));
+    }
+
+    @Test
+    public void testSplit() {
+        TextBatch batch = TextBatch.pack(List.of("Hello", "World"), 5000).get(0);
+
+        Assertions.assertEquals(List.of("Hallo", "Welt"), batch.split(" Hallo\n \nWelt\n"));
+        Assertions.assertNull(batch.split("Hallo Welt"));
+    }
+
+    @Test
+    public void testSplitBeforePostProcessing() {
+        DeepLTranslator translator = new DeepLTranslator(new DeepLConfiguration.Builder()
+                .setMinPoolSize(0)
+                .setPostProcessing(true)
+                .build());
+        TextBatch batch = TextBatch.pack(List.of("Good  morning", "World"), 5000).get(0);
+        String raw = " Guten   Morgen\n\nWelt ";
+
+        Assertions.assertNull(batch.split(translator.postProcess(raw)),
+                "Post-processing removes the blank lines between the texts");
+        Assertions.assertEquals(List.of("Guten Morgen", "Welt"), batch.split(raw, translator::postProcess));
+    }
+}
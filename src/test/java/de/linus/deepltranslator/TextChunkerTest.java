@@ -0,0 +1,44 @@
+package de.linus.deepltranslator;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TextChunkerTest {
+
+    @Test
+    public void testChunksPreserveText() {
+        String text = "  First sentence. Second sentence!\n\nThird paragraph here. And more.\n";
+        List<String> chunks = TextChunker.split(text, SourceLanguage.ENGLISH, 30);
+
+        Assertions.assertEquals(text, String.join("", chunks));
+        chunks.forEach(chunk -> Assertions.assertTrue(chunk.length() <= 30, chunk));
+    }
+
+    @Test
+    public void testChunksEndAtSentenceBoundaries() {
+        List<String> chunks = TextChunker.split("One two. Three four. Five six.", SourceLanguage.ENGLISH, 21);
+
+        Assertions.assertEquals(List.of("One two. Three four. ", "Five six."), chunks);
+    }
+
+    @Test
+    public void testPreferParagraphBoundary() {
+        List<String> chunks = TextChunker.split("Aaaa bbbb.\nCccc. Dddd. Eeee.", SourceLanguage.ENGLISH, 20);
+
+        Assertions.assertEquals(List.of("Aaaa bbbb.\n", "Cccc. Dddd. Eeee."), chunks);
+    }
+
+    @Test
+    public void testLongSentenceIsSplitAtWords() {
+        String text = "word ".repeat(20).trim();
+        List<String> chunks = TextChunker.split(text, SourceLanguage.AUTO_DETECT, 12);
+
+        Assertions.assertEquals(text, String.join("", chunks));
+        chunks.forEach(chunk -> {
+            Assertions.assertTrue(chunk.length() <= 12, chunk);
+            Assertions.assertFalse(chunk.startsWith("ord"), chunk);
+        });
+    }
+}
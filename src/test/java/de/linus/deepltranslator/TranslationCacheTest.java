@@ -0,0 +1,42 @@
+package de.linus.deepltranslator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TranslationCacheTest {
+
+    @Test
+    public void testExactKeyWithoutPostProcessing() {
+        TranslationCache cache = new TranslationCache(new DeepLConfiguration.Builder()
+                .setCacheMaximumWeight(1000)
+                .build());
+        cache.put("Hello world", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Hallo Welt");
+
+        Assertions.assertEquals("Hallo Welt", cache.get("Hello world", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+        Assertions.assertNull(cache.get(" Hello  world", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+        Assertions.assertNull(cache.get("Hello world", SourceLanguage.ENGLISH, TargetLanguage.FRENCH));
+        Assertions.assertEquals(1, cache.getStatistics().hitCount());
+        Assertions.assertEquals(2, cache.getStatistics().missCount());
+    }
+
+    @Test
+    public void testNormalizedKeyWithPostProcessing() {
+        TranslationCache cache = new TranslationCache(new DeepLConfiguration.Builder()
+                .setCacheMaximumWeight(1000)
+                .setPostProcessing(true)
+                .build());
+        cache.put("Hello world", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Hallo Welt");
+
+        Assertions.assertEquals("Hallo Welt", cache.get(" Hello  world ", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+    }
+
+    @Test
+    public void testMaximumWeight() {
+        TranslationCache cache = new TranslationCache(new DeepLConfiguration.Builder()
+                .setCacheMaximumWeight(10)
+                .build());
+        cache.put("Hello world", SourceLanguage.ENGLISH, TargetLanguage.GERMAN, "Hallo Welt");
+
+        Assertions.assertNull(cache.get("Hello world", SourceLanguage.ENGLISH, TargetLanguage.GERMAN));
+    }
+}
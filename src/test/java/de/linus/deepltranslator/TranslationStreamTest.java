@@ -0,0 +1,67 @@
+package de.linus.deepltranslator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TranslationStreamTest {
+
+    private final List<CompletableFuture<String>> started = new ArrayList<>();
+
+    private CompletableFuture<String> translate(String text) {
+        CompletableFuture<String> translation = new CompletableFuture<>();
+        started.add(translation);
+        return translation;
+    }
+
+    @Test
+    public void testInFlightIsBounded() {
+        TranslationStream stream = new TranslationStream(IntStream.range(0, 1000).mapToObj(i -> "Text " + i).iterator(),
+                this::translate, 3, true);
+
+        Assertions.assertTrue(stream.hasNext());
+        Assertions.assertEquals(3, started.size(), "Only as many texts as allowed must be pulled");
+
+        started.get(0).complete("Übersetzung 0");
+        TranslatedText first = stream.next();
+
+        Assertions.assertEquals(0, first.getIndex());
+        Assertions.assertEquals("Text 0", first.getText());
+        Assertions.assertEquals("Übersetzung 0", first.getTranslation());
+
+        stream.hasNext();
+        Assertions.assertEquals(4, started.size());
+    }
+
+    @Test
+    public void testUnorderedReturnsCompletedFirst() {
+        TranslationStream stream = new TranslationStream(List.of("A", "B", "C").iterator(), this::translate, 3, false);
+
+        Assertions.assertTrue(stream.hasNext());
+        started.get(2).complete("c");
+        Assertions.assertEquals(2, stream.next().getIndex());
+
+        started.get(0).complete("a");
+        started.get(1).complete("b");
+        Assertions.assertEquals(0, stream.next().getIndex());
+        Assertions.assertEquals(1, stream.next().getIndex());
+        Assertions.assertFalse(stream.hasNext());
+    }
+
+    @Test
+    public void testFailureCancelsRemaining() {
+        TranslationStream stream = new TranslationStream(List.of("A", "B", "C").iterator(), this::translate, 2, true);
+
+        Assertions.assertTrue(stream.hasNext());
+        started.get(0).completeExceptionally(new IllegalStateException("Failed"));
+
+        Assertions.assertThrows(IllegalStateException.class, stream::next);
+        Assertions.assertTrue(started.get(1).isCancelled());
+        Assertions.assertFalse(stream.hasNext(), "No further texts must be pulled after a failure");
+        Assertions.assertEquals(2, started.size());
+    }
+}
@@ -0,0 +1,237 @@
+package de.linus.deepltranslator;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+public class WebDriverPoolTest {
+
+    private final AtomicInteger started = new AtomicInteger();
+
+    private PooledDriver fakeDriver() {
+        started.incrementAndGet();
+        WebDriver driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] { WebDriver.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> null;
+                });
+        return new PooledDriver(driver, driver::quit);
+    }
+
+    @Test
+    public void testWarmUp() {
+        WebDriverPool pool = new WebDriverPool(2, 4, 0, this::fakeDriver, Runnable::run);
+        pool.warmUp();
+
+        Assertions.assertEquals(2, started.get());
+        Assertions.assertEquals(2, pool.getIdleCount());
+        Assertions.assertEquals(2, pool.getTotalCount());
+        pool.close();
+    }
+
+    @Test
+    public void testReuseReleasedDriver() {
+        WebDriverPool pool = new WebDriverPool(0, 1, 0, this::fakeDriver, Runnable::run);
+        PooledDriver first = pool.acquire(System.currentTimeMillis() + 1000);
+        pool.release(first);
+        PooledDriver second = pool.acquire(System.currentTimeMillis() + 1000);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, started.get());
+        pool.close();
+    }
+
+    @Test
+    public void testRetiredDriverIsReplaced() {
+        WebDriverPool pool = new WebDriverPool(0, 1, 0, this::fakeDriver,
+                pooledDriver -> pooledDriver.getUses() >= 1, Runnable::run);
+        PooledDriver first = pool.acquire(System.currentTimeMillis() + 1000);
+        first.incrementUses();
+        pool.release(first);
+
+        Assertions.assertEquals(2, started.get());
+        Assertions.assertEquals(1, pool.getIdleCount());
+        Assertions.assertEquals(1, pool.getTotalCount());
+        Assertions.assertNotSame(first, pool.acquire(System.currentTimeMillis() + 1000));
+        pool.close();
+    }
+
+    @Test
+    public void testIdleDriverIsRetiredOnCheckout() {
+        List<PooledDriver> tooOld = new ArrayList<>();
+        WebDriverPool pool = new WebDriverPool(0, 1, 0, this::fakeDriver, tooOld::contains, Runnable::run);
+        PooledDriver first = pool.acquire(System.currentTimeMillis() + 1000);
+        pool.release(first);
+        tooOld.add(first);
+
+        Assertions.assertSame(first, pool.acquire(System.currentTimeMillis() + 1000));
+        Assertions.assertEquals(2, started.get());
+        Assertions.assertEquals(1, pool.getIdleCount());
+
+        pool.release(first);
+
+        Assertions.assertEquals(1, pool.getIdleCount());
+        Assertions.assertEquals(1, pool.getTotalCount());
+        Assertions.assertNotSame(first, pool.acquire(System.currentTimeMillis() + 1000));
+        pool.close();
+    }
+
+    @Test
+    public void testMaxSizeTimesOut() {
+        WebDriverPool pool = new WebDriverPool(0, 1, 1, this::fakeDriver, Runnable::run);
+        pool.acquire(System.currentTimeMillis() + 1000);
+
+        Assertions.assertThrows(TimeoutException.class, () -> pool.acquire(System.currentTimeMillis() + 50));
+        Assertions.assertEquals(1, started.get());
+        pool.close();
+    }
+
+    @Test
+    public void testFullQueueRejects() {
+        WebDriverPool pool = new WebDriverPool(0, 1, 0, this::fakeDriver, Runnable::run);
+        pool.acquire(System.currentTimeMillis() + 1000);
+
+        Assertions.assertThrows(RejectedExecutionException.class,
+                () -> pool.acquire(System.currentTimeMillis() + 1000));
+        pool.close();
+    }
+
+    @Test
+    public void testHigherPriorityIsServedFirst() throws Exception {
+        WebDriverPool pool = new WebDriverPool(0, 1, 2, this::fakeDriver, Runnable::run);
+        PooledDriver busy = pool.acquire(System.currentTimeMillis() + 1000);
+        CompletableFuture<TranslationPriority> served = new CompletableFuture<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (TranslationPriority priority : List.of(TranslationPriority.LOW, TranslationPriority.HIGH)) {
+            Thread thread = new Thread(() -> {
+                PooledDriver pooledDriver = pool.acquire(null, new TranslationRequest(priority),
+                        System.currentTimeMillis() + 5000);
+                served.complete(priority);
+                pool.release(pooledDriver);
+            });
+            thread.start();
+            threads.add(thread);
+
+            while (pool.getQueuedCount(priority) == 0) {
+                Thread.sleep(1);
+            }
+        }
+
+        pool.release(busy);
+
+        Assertions.assertEquals(TranslationPriority.HIGH, served.get(5, TimeUnit.SECONDS));
+
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        Assertions.assertEquals(0, pool.getQueuedCount());
+        pool.close();
+    }
+
+    @Test
+    public void testCancelledWaiterLeavesQueue() throws Exception {
+        WebDriverPool pool = new WebDriverPool(0, 1, 1, this::fakeDriver, Runnable::run);
+        PooledDriver busy = pool.acquire(System.currentTimeMillis() + 1000);
+        TranslationRequest request = new TranslationRequest(TranslationPriority.NORMAL, Duration.ZERO, true);
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+
+        Thread thread = new Thread(() -> {
+            try {
+                pool.acquire(null, request, System.currentTimeMillis() + 60_000);
+            } catch (RuntimeException e) {
+                failure.complete(e);
+            }
+        });
+        thread.start();
+
+        while (pool.getQueuedCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        request.cancel();
+
+        Assertions.assertInstanceOf(CancellationException.class, failure.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, pool.getQueuedCount());
+
+        thread.join(5000);
+        pool.release(busy);
+        pool.close();
+    }
+
+    @Test
+    public void testGrantToCancelledWaiterIsKept() throws Exception {
+        TranslationRequest request = new TranslationRequest(TranslationPriority.NORMAL, Duration.ZERO, true);
+        // Cancels the waiting request while the released instance is handed to it
+        WebDriverPool pool = new WebDriverPool(0, 1, 1, this::fakeDriver, pooledDriver -> {
+            request.cancel();
+            return false;
+        }, Runnable::run);
+        PooledDriver busy = pool.acquire(System.currentTimeMillis() + 1000);
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+
+        Thread thread = new Thread(() -> {
+            try {
+                pool.acquire(null, request, System.currentTimeMillis() + 60_000);
+            } catch (RuntimeException e) {
+                failure.complete(e);
+            }
+        });
+        thread.start();
+
+        while (pool.getQueuedCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        pool.release(busy);
+
+        Assertions.assertInstanceOf(CancellationException.class, failure.get(5, TimeUnit.SECONDS));
+        thread.join(5000);
+
+        Assertions.assertEquals(1, pool.getIdleCount());
+        Assertions.assertEquals(1, pool.getTotalCount());
+        Assertions.assertSame(busy, pool.acquire(System.currentTimeMillis() + 1000));
+        Assertions.assertEquals(1, started.get());
+        pool.close();
+    }
+
+    @Test
+    public void testLanguagePairAffinity() {
+        LanguagePair englishGerman = new LanguagePair(SourceLanguage.ENGLISH, TargetLanguage.GERMAN);
+        LanguagePair englishFrench = new LanguagePair(SourceLanguage.ENGLISH, TargetLanguage.FRENCH);
+        WebDriverPool pool = new WebDriverPool(2, 2, 0, this::fakeDriver, Runnable::run);
+        pool.warmUp();
+        long timeoutMillisEnd = System.currentTimeMillis() + 1000;
+        TranslationRequest request = new TranslationRequest(TranslationPriority.NORMAL);
+
+        PooledDriver german = pool.acquire(englishGerman, request, timeoutMillisEnd);
+        german.setLanguagePair(englishGerman);
+        PooledDriver french = pool.acquire(englishFrench, request, timeoutMillisEnd);
+        french.setLanguagePair(englishFrench);
+        pool.release(german);
+        pool.release(french);
+
+        Assertions.assertSame(german, pool.acquire(englishGerman, request, timeoutMillisEnd));
+        Assertions.assertSame(french, pool.acquire(englishFrench, request, timeoutMillisEnd));
+
+        LanguagePairStatistics statistics = pool.getLanguagePairStatistics().stream()
+                .filter(s -> s.getTargetLanguage() == TargetLanguage.GERMAN)
+                .findFirst().orElseThrow();
+        Assertions.assertEquals(1, statistics.getHits());
+        Assertions.assertEquals(1, statistics.getMisses());
+        pool.close();
+    }
+}